@@ -0,0 +1,32 @@
+package payroll.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * Reflective access to the payroll application. The application classes live in the
+ * unnamed package, which cannot be imported from the named package that JMH requires
+ * for benchmark classes, so benchmarks bind method handles to them during setup.
+ */
+final class App {
+    private App() {
+    }
+
+    static Class<?> type(String className) throws ClassNotFoundException {
+        return Class.forName(className);
+    }
+
+    static Object newInstance(String className, Class<?>[] parameterTypes, Object... args) throws ReflectiveOperationException {
+        Constructor<?> constructor = type(className).getDeclaredConstructor(parameterTypes);
+        constructor.setAccessible(true);
+        return constructor.newInstance(args);
+    }
+
+    static MethodHandle method(String className, String name, Class<?>... parameterTypes) throws ReflectiveOperationException {
+        Method method = type(className).getDeclaredMethod(name, parameterTypes);
+        method.setAccessible(true);
+        return MethodHandles.lookup().unreflect(method);
+    }
+}
@@ -0,0 +1,101 @@
+package payroll.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Deduction calculations of the tax rules used by PaySlipCalculator, over a generated set of monthly gross pay amounts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaySlipCalculatorBenchmark {
+    @Param({"1000", "100000"})
+    public int employees;
+
+    private WorkforceDataset dataset;
+    private double[] grossPay;
+    private MethodHandle incomeTax;
+    private MethodHandle prsi;
+    private MethodHandle usc;
+    private long[] grossPayCents;
+    private MethodHandle calculateBatch;
+    private long[][] deductions;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        dataset = WorkforceDataset.create(0, 42);
+        Random random = new Random(42);
+        grossPay = new double[employees];
+        grossPayCents = new long[employees];
+        for (int i = 0; i < employees; i++) {
+            String[] scale = dataset.salaryScales.get(random.nextInt(dataset.salaryScales.size()));
+            grossPay[i] = Double.parseDouble(scale[2]) / 12;
+            grossPayCents[i] = Math.round(grossPay[i] * 100);
+        }
+
+        Object taxRules = App.method("TaxRules", "getRules", String.class).invoke(dataset.file("TaxRules.csv"));
+        incomeTax = App.method("TaxRules", "getIncomeTax", double.class).bindTo(taxRules);
+        prsi = App.method("TaxRules", "getPRSI", double.class).bindTo(taxRules);
+        usc = App.method("TaxRules", "getUSC", double.class).bindTo(taxRules);
+        calculateBatch = App.method("TaxRules", "calculate", long[].class, long[].class, long[].class,
+                long[].class, long[].class, long[].class).bindTo(taxRules);
+        deductions = new long[5][employees];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        dataset.delete();
+    }
+
+    @Benchmark
+    public double calculateIncomeTax() throws Throwable {
+        double total = 0;
+        for (double gross : grossPay) {
+            total += (double) incomeTax.invokeExact(gross);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double calculatePRSI() throws Throwable {
+        double total = 0;
+        for (double gross : grossPay) {
+            total += (double) prsi.invokeExact(gross);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double calculateUSC() throws Throwable {
+        double total = 0;
+        for (double gross : grossPay) {
+            total += (double) usc.invokeExact(gross);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long[][] calculateBatch() throws Throwable {
+        calculateBatch.invokeExact(grossPayCents, deductions[0], deductions[1], deductions[2], deductions[3], deductions[4]);
+        return deductions;
+    }
+}
@@ -0,0 +1,71 @@
+package payroll.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A whole payroll run over a generated workforce, from reading the input files to committing
+ * PaySlips.csv. PaySlipGenerator.payslipGenerator reads its files from the working directory,
+ * so the benchmark drives the PayrollEngine it delegates to with the dataset's paths instead.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PayrollRunBenchmark {
+    @Param({"1000", "50000"})
+    public int employees;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private WorkforceDataset dataset;
+    private MethodHandle run;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        dataset = WorkforceDataset.create(employees, 42);
+
+        Object writer = App.newInstance("PaySlipWriter", new Class<?>[]{String.class}, dataset.file("PaySlips.csv"));
+        Object engine = App.newInstance("PayrollEngine",
+                new Class<?>[]{String.class, String.class, String.class, String.class, App.type("PaySlipWriter")},
+                dataset.file("EmployeeInfo.csv"), dataset.file("EmployeeStatus.csv"), dataset.file("PayClaims.csv"),
+                dataset.file("FulltimeSalaryScales.csv"), writer);
+        App.method("PayrollEngine", "setParallelism", int.class).bindTo(engine).invoke(parallelism);
+
+        run = App.method("PayrollEngine", "run", LocalDate.class).bindTo(engine);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearPayslips() throws Exception {
+        // Each run starts from an empty payslip file and no checkpoint, or it would be a no-op
+        dataset.deleteOutputs();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        dataset.delete();
+    }
+
+    @Benchmark
+    public int payslipGenerator() throws Throwable {
+        return (int) run.invokeExact(WorkforceDataset.RUN_DATE);
+    }
+}
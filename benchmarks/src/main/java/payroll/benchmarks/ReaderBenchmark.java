@@ -0,0 +1,77 @@
+package payroll.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookups through FulltimeSalaryScalesReader, EmployeeInfoReader and CSVManager over a
+ * generated workforce.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReaderBenchmark {
+    @Param({"1000", "10000"})
+    public int employees;
+
+    private WorkforceDataset dataset;
+    private MethodHandle getSalary;
+    private MethodHandle getEmployeeDataByUsername;
+    private MethodHandle readEmployeeInfo;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        dataset = WorkforceDataset.create(employees, 42);
+
+        Object salaryReader = App.newInstance("FulltimeSalaryScalesReader", new Class<?>[]{String.class},
+                dataset.file("FulltimeSalaryScales.csv"));
+        Object employeeReader = App.newInstance("EmployeeInfoReader", new Class<?>[]{String.class},
+                dataset.file("EmployeeInfo.csv"));
+
+        getSalary = App.method("FulltimeSalaryScalesReader", "getSalary", String.class, String.class).bindTo(salaryReader);
+        getEmployeeDataByUsername = App.method("EmployeeInfoReader", "getEmployeeDataByUsername", String.class).bindTo(employeeReader);
+        readEmployeeInfo = App.method("CSVManager", "readEmployeeInfo", String.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        dataset.delete();
+    }
+
+    @Benchmark
+    public double getSalary() throws Throwable {
+        String[] scale = dataset.salaryScales.get(next++ % dataset.salaryScales.size());
+        return (double) getSalary.invokeExact(scale[0], scale[1]);
+    }
+
+    @Benchmark
+    public String[] getEmployeeDataByUsername() throws Throwable {
+        String username = dataset.usernames.get(next++ % dataset.usernames.size());
+        return (String[]) getEmployeeDataByUsername.invokeExact(username);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public List<String[]> readEmployeeInfo() throws Throwable {
+        return (List<String[]>) readEmployeeInfo.invokeExact(dataset.file("EmployeeInfo.csv"));
+    }
+}
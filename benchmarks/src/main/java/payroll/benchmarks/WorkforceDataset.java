@@ -0,0 +1,108 @@
+package payroll.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A generated set of payroll input files in a temporary directory, written by the
+ * application's WorkforceDataGenerator with job titles and scale points drawn from the real
+ * FulltimeSalaryScales.csv. The real TaxRules.csv is copied alongside.
+ */
+final class WorkforceDataset {
+    static final LocalDate RUN_DATE = LocalDate.of(2024, 12, 25);
+    private static final double PART_TIME_RATIO = 0.3;
+
+    final Path directory;
+    final List<String[]> salaryScales = new ArrayList<>();
+    final List<String> usernames = new ArrayList<>();
+
+    private WorkforceDataset(Path directory) {
+        this.directory = directory;
+    }
+
+    static WorkforceDataset create(int employees, long seed) throws Throwable {
+        WorkforceDataset dataset = new WorkforceDataset(Files.createTempDirectory("payroll-bench"));
+        dataset.copySalaryScales();
+        dataset.generate(employees, seed);
+        return dataset;
+    }
+
+    String file(String name) {
+        return directory.resolve(name).toString();
+    }
+
+    private void copyResource(String name) throws IOException {
+        try (InputStream in = WorkforceDataset.class.getResourceAsStream("/" + name)) {
+            if (in == null) {
+                throw new IOException(name + " is missing from the benchmark classpath");
+            }
+            Files.copy(in, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void copySalaryScales() throws IOException {
+        copyResource("FulltimeSalaryScales.csv");
+        copyResource("TaxRules.csv");
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                Files.newInputStream(directory.resolve("FulltimeSalaryScales.csv")), StandardCharsets.UTF_8))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length >= 3) {
+                    salaryScales.add(new String[]{fields[0].trim(), fields[1].trim(), fields[2].trim()});
+                }
+            }
+        }
+    }
+
+    private void generate(int employees, long seed) throws Throwable {
+        Object generator = App.newInstance("WorkforceDataGenerator", new Class<?>[0]);
+        App.method("WorkforceDataGenerator", "setSalaryScalesFile", String.class).bindTo(generator).invoke(file("FulltimeSalaryScales.csv"));
+        App.method("WorkforceDataGenerator", "setOutputDirectory", String.class).bindTo(generator).invoke(directory.toString());
+        App.method("WorkforceDataGenerator", "setEmployees", int.class).bindTo(generator).invoke(employees);
+        App.method("WorkforceDataGenerator", "setPartTimeRatio", double.class).bindTo(generator).invoke(PART_TIME_RATIO);
+        App.method("WorkforceDataGenerator", "setClaimMonth", YearMonth.class).bindTo(generator).invoke(YearMonth.from(RUN_DATE));
+        App.method("WorkforceDataGenerator", "setSeed", long.class).bindTo(generator).invoke(seed);
+        App.method("WorkforceDataGenerator", "generate").bindTo(generator).invoke();
+
+        try (BufferedReader reader = Files.newBufferedReader(directory.resolve("EmployeeInfo.csv"))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                usernames.add(line.split(",")[1]);
+            }
+        }
+    }
+
+    void deleteOutputs() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().startsWith("PaySlips.csv")) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    void delete() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
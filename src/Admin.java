@@ -1,6 +1,7 @@
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
@@ -206,12 +207,13 @@ public class Admin extends User {
         CSVWriter csvWriter = new CSVWriter();
 
         try {
-            if (getLoginData() != null) {
-                csvWriter.writeToCSV(getLoginData(), "ValidLogins.csv");
+            // The employee record goes first, as adding it fails if another session has taken the ID meanwhile
+            if (getEmployeeData() != null) {
+                EmployeeRepository.getRepository("EmployeeInfo.csv").add(getEmployeeData());
             }
 
-            if (getEmployeeData() != null) {
-                csvWriter.writeToCSV(getEmployeeData(), "EmployeeInfo.csv");
+            if (getLoginData() != null) {
+                csvWriter.writeToCSV(getLoginData(), "ValidLogins.csv");
             }
             csvWriter.writeToCSV(new String[]{username, workStatus}, "EmployeeStatus.csv");
 
@@ -229,7 +231,7 @@ public class Admin extends User {
      */
     private List<String[]> readJobTitlesFromCSV(String filePath) {
         List<String[]> jobTitles = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
             String line;
 
             reader.readLine();
@@ -302,22 +304,16 @@ public class Admin extends User {
     /**
      * Checks if a given ID is unique in the "EmployeeInfo.csv" file.
      *
-     * <p>This method reads the CSV file and compares the given ID with existing IDs
-     * to determine if it is unique.</p>
+     * <p>This method looks the ID up in the {@link EmployeeRepository} index of the
+     * CSV file to determine if it is unique.</p>
      *
      * @param id the ID to check
      * @return <code>true</code> if the ID is unique, <code>false</code> otherwise
      * @throws IOException if an error occurs while reading the file
      */
     private boolean isUniqueID(String id) {
-        try (BufferedReader reader = new BufferedReader(new FileReader("EmployeeInfo.csv"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length > 0 && parts[0].equals(id)) {
-                    return false;
-                }
-            }
+        try {
+            return EmployeeRepository.getRepository("EmployeeInfo.csv").getById(Integer.parseInt(id)) == null;
         } catch (IOException e) {
             System.err.println("Error reading EmployeeInfo.csv: " + e.getMessage());
         }
@@ -325,14 +321,8 @@ public class Admin extends User {
     }
 
     private boolean isUniqueUsername(String username) {
-        try (BufferedReader reader = new BufferedReader(new FileReader("EmployeeInfo.csv"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length > 1 && parts[1].equals(username)) {
-                    return false;
-                }
-            }
+        try {
+            return EmployeeRepository.getRepository("EmployeeInfo.csv").getByUsername(username) == null;
         } catch (IOException e) {
             System.err.println("Error reading EmployeeInfo.csv: " + e.getMessage());
         }
@@ -1,7 +1,9 @@
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.io.*;
 import java.util.HashMap;
 
@@ -12,22 +14,16 @@ public class CSVManager {
     /**
      * Checks if the given job title is valid by verifying it against the entries in a CSV file.
      *
-     * <p>This method reads the "FulltimeSalaryScales.csv" file and compares the given job title
-     * to the entries in the first column. If a match is found, the job title is considered valid.</p>
+     * <p>This method looks up the given job title in the salary scale table loaded from the
+     * "FulltimeSalaryScales.csv" file. If a match is found, the job title is considered valid.</p>
      *
      * @param jobTitle the job title to validate
      * @return <code>true</code> if the job title is valid, <code>false</code> otherwise
      */
     public static boolean isValidJobTitle(String jobTitle) {
         String filename = "FulltimeSalaryScales.csv";
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] details = line.split(",");
-                if (details.length >= 1 && details[0].trim().equalsIgnoreCase(jobTitle)) {
-                    return true;
-                }
-            }
+        try {
+            return SalaryScaleTable.getTable(filename).hasJobTitle(jobTitle);
         } catch (FileNotFoundException e) {
             System.out.println("File not found: " + filename);
         } catch (IOException e) {
@@ -38,33 +34,20 @@ public class CSVManager {
     /**
      * Validates if a scale point is valid for a given job title.
      *
-     * <p>This method checks the "FulltimeSalaryScales.csv" file to ensure the scale point
-     * is within the allowed range for the specified job title.</p>
+     * <p>This method checks the salary scale table loaded from the "FulltimeSalaryScales.csv" file
+     * to ensure the scale point is within the allowed range for the specified job title.</p>
      *
      * @param jobTitle the job title to validate the scale point against
      * @param scalePoint the scale point to validate
      * @return <code>true</code> if the scale point is valid, <code>false</code> otherwise
      */
     public static boolean isValidScalePoint(String jobTitle, int scalePoint) {
-        try (BufferedReader reader = new BufferedReader(new FileReader("FulltimeSalaryScales.csv"))) {
-            String line;
-            int maxScalePoint = Integer.MIN_VALUE;
-
-            // Read each line
-            while ((line = reader.readLine()) != null) {
-                String[] details = line.split(",");
-
-                if (details[0].trim().equalsIgnoreCase(jobTitle)) {
-                    int currentScalePoint = Integer.parseInt(details[1].trim());
-                    maxScalePoint = Math.max(maxScalePoint, currentScalePoint);
-                }
-            }
+        try {
+            int maxScalePoint = SalaryScaleTable.getTable("FulltimeSalaryScales.csv").getMaxScalePoint(jobTitle);
 
             return scalePoint > 0 && scalePoint <= maxScalePoint;
         } catch (IOException e) {
             System.err.println("Error reading FulltimeSalaryScales.csv: " + e.getMessage());
-        } catch (NumberFormatException e) {
-            System.err.println("Invalid number format in FulltimeSalaryScales.csv.");
         }
 
         return false;
@@ -74,7 +57,8 @@ public class CSVManager {
      *
      * <p>This method parses a CSV file containing user credentials and job roles. It creates
      * and returns a `HashMap` where the keys are usernames, and the values are user objects
-     * (`HR`, `Admin`, or `Employee`) based on their job type.</p>
+     * (`HR`, `Admin`, or `Employee`) based on their job type. The rows are read from the
+     * file's {@link CsvSnapshot}, which is rebuilt when the file changes.</p>
      *
      * @return a `HashMap` containing valid users, with usernames as keys and user objects as values
      * @throws RuntimeException if the file is not found or an error occurs while reading the file
@@ -83,13 +67,10 @@ public class CSVManager {
         String filename = "ValidLogins.csv";
         HashMap<String, User> users = new HashMap<>();
         try {
-            BufferedReader reader = new BufferedReader(new FileReader(filename));
-            reader.readLine();
-
-            String line;
+            CsvSnapshot snapshot = CsvSnapshot.getSnapshot(filename, 2);
 
-            while ((line = reader.readLine()) != null) {
-                String[] details = line.split(",");
+            for (int row = 1; row < snapshot.getRowCount(); row++) {
+                String[] details = snapshot.getRow(row);
                 if (details.length == 3) {
                     String userName = details[0].trim();
                     String userPassword = details[1].trim();
@@ -111,7 +92,6 @@ public class CSVManager {
                     System.out.println("Too many details input");
                 }
             }
-            reader.close();
             return users;
         } catch (FileNotFoundException e) {
             throw new RuntimeException(e);
@@ -122,7 +102,7 @@ public class CSVManager {
     /**
      * Retrieves an employee's details by their employee ID from the "EmployeeInfo.csv" file.
      *
-     * <p>This method searches the CSV file for a matching employee ID and constructs an
+     * <p>This method looks up the employee ID in the {@link EmployeeRepository} index and constructs an
      * `Employee` object with the retrieved details. If no match is found or an error occurs,
      * it returns <code>null</code>.</p>
      *
@@ -132,27 +112,24 @@ public class CSVManager {
      * @throws NumberFormatException if numeric fields in the file are invalid
      */
     public static Employee getEmployeeByID(String empID) {
-        try (BufferedReader reader = new BufferedReader(new FileReader("EmployeeInfo.csv"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] details = line.split(",");
-
-                if (details.length >= 9 && details[0].trim().equals(empID)) {
-                    String id = details[0].trim();
-                    String username = details[1].trim();
-                    String name = details[2].trim();
-                    String dob = details[3].trim();
-                    String ppsNo = details[4].trim();
-                    String password = details[5].trim();
-                    String jobTitle = details[6].trim();
-                    int scalePoint = Integer.parseInt(details[7].trim());
-                    int promotionFlag = Integer.parseInt(details[8].trim());
-
-                    Employee employee = new Employee(username, password, name, jobTitle, dob, ppsNo, Integer.parseInt(id), jobTitle, scalePoint);
-                    employee.setPreviousJobTitle(details.length > 9 ? details[9].trim() : "");
-                    employee.setPreviousScalePoint(details.length > 10 ? Integer.parseInt(details[10].trim()) : 0);
-                    return employee;
-                }
+        try {
+            String[] details = EmployeeRepository.getRepository("EmployeeInfo.csv").getById(Integer.parseInt(empID.trim()));
+
+            if (details != null && details.length >= 9) {
+                String id = details[0].trim();
+                String username = details[1].trim();
+                String name = details[2].trim();
+                String dob = details[3].trim();
+                String ppsNo = details[4].trim();
+                String password = details[5].trim();
+                String jobTitle = details[6].trim();
+                int scalePoint = Integer.parseInt(details[7].trim());
+                int promotionFlag = Integer.parseInt(details[8].trim());
+
+                Employee employee = new Employee(username, password, name, jobTitle, dob, ppsNo, Integer.parseInt(id), jobTitle, scalePoint);
+                employee.setPreviousJobTitle(details.length > 9 ? details[9].trim() : "");
+                employee.setPreviousScalePoint(details.length > 10 ? Integer.parseInt(details[10].trim()) : 0);
+                return employee;
             }
         } catch (IOException e) {
             System.err.println("Error reading EmployeeInfo.csv: " + e.getMessage());
@@ -165,27 +142,26 @@ public class CSVManager {
      * Updates the details of an employee in the "EmployeeInfo.csv" file.
      *
      * <p>This method modifies the employee's job title, scale point, promotion flag,
-     * and previous job details in the CSV file. If the employee's record is found,
-     * it updates the corresponding fields and writes the changes back to the file.</p>
+     * and previous job details. The updated record is appended to the mutation log of
+     * "EmployeeInfo.csv" rather than rewriting the file; see {@link EmployeeRepository}.
+     * The record is read and written under the employee's lock, so a concurrent change
+     * to the same employee, such as the yearly increment, is not lost.</p>
      *
      * @param employee the employee whose details need to be updated
      * @throws IOException if an error occurs while reading or writing the file
      */
     public static void updateEmployeeDetails(Employee employee) {
         try {
-            List<String[]> employeeData = readEmployeeInfo();
-
-            for (String[] record : employeeData) {
-                if (record[0].equals(String.valueOf(employee.getId()))) {
-                    record[6] = employee.getJobTitle();
-                    record[7] = String.valueOf(employee.getScalePoint());
-                    record[8] = "1";
-                    record[9] = employee.getPreviousJobTitle() == null ? "" : employee.getPreviousJobTitle();
-                    record[10] = String.valueOf(employee.getPreviousScalePoint());
-                }
-            }
-
-            writeEmployeeInfo(employeeData);
+            EmployeeRepository.getRepository("EmployeeInfo.csv").modify(employee.getId(), "promotion", details -> {
+                String[] record = padEmployeeRecord(details);
+
+                record[6] = employee.getJobTitle();
+                record[7] = String.valueOf(employee.getScalePoint());
+                record[8] = "1";
+                record[9] = employee.getPreviousJobTitle() == null ? "" : employee.getPreviousJobTitle();
+                record[10] = String.valueOf(employee.getPreviousScalePoint());
+                return record;
+            });
             System.out.println("Employee details updated successfully.");
         } catch (IOException e) {
             System.err.println("Error updating employee details: " + e.getMessage());
@@ -196,7 +172,8 @@ public class CSVManager {
      *
      * <p>This method updates the employee's record in the "EmployeeInfo.csv" file by setting
      * their current job title and scale point to the previous values, resetting the promotion
-     * flag, and clearing the previous job details.</p>
+     * flag, and clearing the previous job details. The updated record is appended to the
+     * mutation log of the file, under the employee's lock.</p>
      *
      * @param employee the employee whose promotion is being reverted
      * @return a `String[]` containing the reverted job title and scale point
@@ -205,52 +182,52 @@ public class CSVManager {
      */
     public static String[] revertPromotion(Employee employee) {
         try {
-            List<String[]> employeeData = readEmployeeInfo();
-            String revertedJobTitle = "";
-            String revertedScalePoint = "";
+            String[] reverted = new String[2];
+            EmployeeRepository.getRepository("EmployeeInfo.csv").modify(employee.getId(), "promotion-rejected", details -> {
+                String[] record = padEmployeeRecord(details);
 
-            for (int i = 0; i < employeeData.size(); i++) {
-                String[] record = employeeData.get(i);
+                reverted[0] = record[9];
+                reverted[1] = record[10];
 
-                if (record[0].equals(String.valueOf(employee.getId()))) {
-                    if (record.length < 11) {
-                        record = Arrays.copyOf(record, 11);
-                    }
-
-                    revertedJobTitle = record[9];
-                    revertedScalePoint = record[10];
-
-                    record[6] = revertedJobTitle;
-                    record[7] = revertedScalePoint;
-                    record[8] = "0";
-
-                    record[9] = "";
-                    record[10] = "0";
-
-                    employeeData.set(i, record);
-                    break;
-                }
-            }
+                record[6] = reverted[0];
+                record[7] = reverted[1];
+                record[8] = "0";
 
-            writeEmployeeInfo(employeeData);
+                record[9] = "";
+                record[10] = "0";
+                return record;
+            });
             System.out.println("Promotion reverted and employee details written to CSV.");
 
-            return new String[]{revertedJobTitle, revertedScalePoint};
+            return reverted;
         } catch (IOException e) {
             System.err.println("Error reverting promotion: " + e.getMessage());
             return new String[]{"", "0"};
         }
     }
 
+    /**
+     * Pads an employee's record to all 12 fields.
+     */
+    private static String[] padEmployeeRecord(String[] record) {
+        if (record.length < 12) {
+            int length = record.length;
+            record = Arrays.copyOf(record, 12);
+            Arrays.fill(record, length, 12, "");
+            record[11] = "0";
+        }
+        return record;
+    }
+
+    /**
+     * Moves every employee one scale point up their salary scale, or counts another year at
+     * the top for employees already at the top. All employees are locked while their records
+     * are read and the changes are logged, so no promotion made at the same time is lost.
+     */
     public static void updateSalaryScales() {
         try {
-            List<String[]> employeeData = readEmployeeInfo();
-
-            for (String[] employee : employeeData) {
-                if (employee.length < 12) {
-                    employee = Arrays.copyOf(employee, 12);
-                    employee[11] = "0";
-                }
+            EmployeeRepository.getRepository("EmployeeInfo.csv").modifyAll("increment", details -> {
+                String[] employee = padEmployeeRecord(details);
 
                 String jobType = employee[6];
                 int currentScalePoint = Integer.parseInt(employee[7]);
@@ -260,7 +237,7 @@ public class CSVManager {
 
                 if (maxScalePoint == -1) {
                     System.err.println("No salary scales found for job type: " + jobType);
-                    continue;
+                    return null;
                 }
 
                 if (currentScalePoint < maxScalePoint) {
@@ -270,9 +247,8 @@ public class CSVManager {
                     System.out.println("Employee ID " + employee[0] + " has reached the maximum scale point for " + jobType);
                     employee[11] = String.valueOf(yearsAtTop + 1);
                 }
-            }
-
-            writeEmployeeInfo(employeeData);
+                return employee;
+            });
             System.out.println("EmployeeInfo.csv updated successfully!");
         } catch (IOException e) {
             System.err.println("Error updating salary scales: " + e.getMessage());
@@ -284,45 +260,23 @@ public class CSVManager {
     /**
      * Retrieves the maximum scale point for a specific job type from the salary scales data.
      *
-     * <p>This method iterates through the salary scales file to find the highest scale point
-     * associated with the given job type. If no matching job type is found, an error message
+     * <p>This method looks up the highest scale point associated with the given job type in the
+     * salary scale table. If no matching job type is found, an error message
      * is logged, and the method returns {@code -1}.</p>
      *
      * @param jobType the job type to look up in the salary scales (e.g., "Senior Administrative Officer II").
      * @return the maximum scale point for the given job type, or {@code -1} if no match is found.
      */
     public static int getMaxScalePoint(String jobType) {
-        int maxScalePoint = Integer.MIN_VALUE;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader("FulltimeSalaryScales.csv"))) {
-            String line;
-
-            reader.readLine();
-
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length < 2) {
-                    System.err.println("Invalid row format in FulltimeSalaryScales.csv: " + line);
-                    continue;
-                }
-
-                String currentJobTitle = parts[0].trim();
-
-                try {
-                    int scalePoint = Integer.parseInt(parts[1].trim());
+        int maxScalePoint = -1;
 
-                    if (currentJobTitle.equalsIgnoreCase(jobType)) {
-                        maxScalePoint = Math.max(maxScalePoint, scalePoint);
-                    }
-                } catch (NumberFormatException e) {
-                    System.err.println("Invalid scale point format in FulltimeSalaryScales.csv: " + line);
-                }
-            }
+        try {
+            maxScalePoint = SalaryScaleTable.getTable("FulltimeSalaryScales.csv").getMaxScalePoint(jobType);
         } catch (IOException e) {
             System.err.println("Error reading FulltimeSalaryScales.csv: " + e.getMessage());
         }
 
-        if (maxScalePoint == Integer.MIN_VALUE) {
+        if (maxScalePoint == -1) {
             System.err.println("No salary scales found for job type: " + jobType);
             return -1;
         }
@@ -331,8 +285,23 @@ public class CSVManager {
     }
 
     public static List<String[]> readEmployeeInfo() throws IOException {
+        return EmployeeRepository.getRepository("EmployeeInfo.csv").getAll();
+    }
+
+    /**
+     * Reads every employee record from the given employee information file.
+     *
+     * <p>The header row is skipped if present. Each record is returned as the
+     * comma-separated fields of its line. The file's mutation log is applied, so a changed
+     * record is returned as last changed and new employees follow the file's records.</p>
+     *
+     * @param filePath the path to the employee information CSV file
+     * @return a list of employee records
+     * @throws IOException if an error occurs while reading the file
+     */
+    public static List<String[]> readEmployeeInfo(String filePath) throws IOException {
         List<String[]> employeeData = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader("EmployeeInfo.csv"))) {
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
             String line;
 
             if ((line = reader.readLine()) != null && line.toLowerCase().contains("id")) {
@@ -343,6 +312,17 @@ public class CSVManager {
                 line = reader.readLine();
             }
         }
+
+        Map<String, String[]> logged = EmployeeRepository.readLog(filePath);
+        if (!logged.isEmpty()) {
+            for (int i = 0; i < employeeData.size(); i++) {
+                String[] record = logged.remove(employeeData.get(i)[0].trim());
+                if (record != null) {
+                    employeeData.set(i, record);
+                }
+            }
+            employeeData.addAll(logged.values());
+        }
         return employeeData;
     }
 
@@ -356,65 +336,33 @@ public class CSVManager {
      * @throws RuntimeException if an error occurs while reading or writing the file
      */
     public static Employee getEmployeeByUsername(String username) {
-        try (BufferedReader reader = new BufferedReader(new FileReader("EmployeeInfo.csv"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] details = line.split(",");
-
-                if (details.length >= 9 && details[1].trim().equalsIgnoreCase(username)) {
-                    int id = Integer.parseInt(details[0].trim());
-                    String name = details[2].trim();
-                    String dob = details[3].trim();
-                    String ppsNo = details[4].trim();
-                    String password = details[5].trim();
-                    String jobTitle = details[6].trim();
-                    int scalePoint = Integer.parseInt(details[7].trim());
-                    int pendingPromotionFlag = Integer.parseInt(details[8].trim());
-
-                    Employee employee = new Employee(username, password, name, jobTitle, dob, ppsNo, id, jobTitle, scalePoint);
-                    employee.setPendingPromotionFlag(pendingPromotionFlag);
-                    return employee;
-                }
+        try {
+            String[] details = EmployeeRepository.getRepository("EmployeeInfo.csv").getByUsername(username);
+
+            if (details != null && details.length >= 9) {
+                int id = Integer.parseInt(details[0].trim());
+                String name = details[2].trim();
+                String dob = details[3].trim();
+                String ppsNo = details[4].trim();
+                String password = details[5].trim();
+                String jobTitle = details[6].trim();
+                int scalePoint = Integer.parseInt(details[7].trim());
+                int pendingPromotionFlag = Integer.parseInt(details[8].trim());
+
+                Employee employee = new Employee(username, password, name, jobTitle, dob, ppsNo, id, jobTitle, scalePoint);
+                employee.setPendingPromotionFlag(pendingPromotionFlag);
+                return employee;
             }
         } catch (IOException e) {
             throw new RuntimeException("Error reading the file: EmployeeInfo.csv", e);
         }
         return null;
     }
-    /**
-     * Writes employee information to the "EmployeeInfo.csv" file.
-     *
-     * <p>This method overwrites the file with updated employee data, including
-     * the header row and all records provided in the list.</p>
-     *
-     * @param employeeData a list of string arrays, where each array represents an employee's record
-     * @throws IOException if an error occurs while writing to the file
-     */
-    private static void writeEmployeeInfo(List<String[]> employeeData) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter("EmployeeInfo.csv"))) {
-            String header = "id,username,name,dob,ppsNumber,password,jobTitle,scalePoint,pendingPromotionFlag,previousJobTitle,previousScalePoint,yearsAtTop";
-            writer.write(header);
-            writer.newLine();
-
-            for (String[] record : employeeData) {
-                if (record.length < 12) {
-                    record = Arrays.copyOf(record, 12);
-                    record[11] = "0";
-                }
-                String line = String.join(",", record);
-                writer.write(line);
-                writer.newLine();
-            }
-            System.out.println("CSV file updated successfully.");
-        } catch (IOException e) {
-            System.err.println("Error writing to EmployeeInfo.csv: " + e.getMessage());
-        }
-    }
     /**
      * Reads the work status of employees from the "EmployeeStatus.csv" file.
      *
-     * <p>This method parses the CSV file and creates a map where each key is a username
-     * and each value is the corresponding work status.</p>
+     * <p>This method reads the rows of the file's {@link CsvSnapshot} and creates a map where
+     * each key is a username and each value is the corresponding work status.</p>
      *
      * @return a `HashMap` containing usernames as keys and work statuses as values
      * @throws IOException if an error occurs while reading the file
@@ -423,18 +371,17 @@ public class CSVManager {
         String filename = "EmployeeStatus.csv";
         HashMap<String, String> employeeStatusMap = new HashMap<>();
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            String line;
-            reader.readLine();
+        try {
+            CsvSnapshot snapshot = CsvSnapshot.getSnapshot(filename, 1);
 
-            while ((line = reader.readLine()) != null) {
-                String[] details = line.split(",");
+            for (int row = 1; row < snapshot.getRowCount(); row++) {
+                String[] details = snapshot.getRow(row);
                 if (details.length == 2) {
                     String username = details[0].trim();
                     String workStatus = details[1].trim();
                     employeeStatusMap.put(username, workStatus);
                 } else {
-                    System.err.println("Invalid line format in EmployeeStatus.csv: " + line);
+                    System.err.println("Invalid line format in EmployeeStatus.csv: " + String.join(",", details));
                 }
             }
         } catch (IOException e) {
@@ -1,5 +1,6 @@
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 public class CSVWriter {
     /**
@@ -11,7 +12,7 @@ public class CSVWriter {
      * @throws IOException If an error occurs while writing to the file.
      */
     public void writeToCSV(String[] data, String filePath) throws IOException {
-        FileWriter writer = new FileWriter(filePath, true);
+        FileWriter writer = new FileWriter(filePath, StandardCharsets.UTF_8, true);
         String line = String.join(",", data);
         writer.write(line + "\n");
         writer.close();
@@ -0,0 +1,327 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+public class CsvSnapshot {
+    private static final int MAGIC = 0x43535631; // "CSV1"
+    // Offset of the source's modification time in the header, rewritten when only the time has changed
+    private static final int MODIFIED_OFFSET = Integer.BYTES + Long.BYTES;
+    private static final int HEADER_SIZE = Integer.BYTES + 4 * Long.BYTES + 3 * Integer.BYTES;
+
+    private static final Map<String, CsvSnapshot> snapshots = new HashMap<>();
+
+    private String csvFile;
+    private long sourceLength;
+    private long sourceModified;
+    private long dictionaryColumns;
+    private MappedByteBuffer buffer;
+    private String[] dictionary;
+    private int rowCount;
+    private int rowOffsets;
+
+    private CsvSnapshot(String csvFile) {
+        this.csvFile = csvFile;
+    }
+
+    /**
+     * Returns the rows of a CSV file from its binary snapshot, building the snapshot if it
+     * does not exist yet or no longer matches the file.
+     *
+     * <p>The snapshot, kept next to the file (e.g. EmployeeInfo.csv.snap), holds every line
+     * of the file already split into fields, so loading a table is a matter of copying
+     * strings out of a memory-mapped file rather than splitting lines. Each field is stored
+     * as its length followed by its UTF-8 bytes. The values of the dictionary columns, such
+     * as job titles, are stored once in a dictionary, and the rows refer to them by number;
+     * rows that share a value share a single String. The file looks like this:</p>
+     * <pre>
+     * int magic
+     * long sourceLength, long sourceModified, long sourceCrc, long dictionaryColumns
+     * int rows, int dictionarySize, int rowOffsets
+     * dictionarySize x (varint length, bytes)
+     * rows x (varint fields, then each field as varint length, bytes or as varint dictionary number)
+     * rows x int offset of the row
+     * </pre>
+     *
+     * <p>The snapshot is used as it is while the file's length and modification time match
+     * the ones it was built from. If only the modification time has changed, the file's CRC32
+     * is checked against the snapshot's: if it still matches, the new time is written into the
+     * snapshot, and otherwise the snapshot is built again. Like {@link TaxRules}, the opened
+     * snapshot is shared and checked again on every call.</p>
+     *
+     * @param csvFile the path to the CSV file, e.g. "EmployeeInfo.csv"
+     * @param dictionaryColumns the columns whose values are stored in the dictionary, e.g. 6
+     *                          and 9 for the job titles of EmployeeInfo.csv
+     * @return the snapshot of the file
+     * @throws FileNotFoundException if the CSV file does not exist
+     * @throws IOException if the file cannot be read or its snapshot cannot be written
+     */
+    public static synchronized CsvSnapshot getSnapshot(String csvFile, int... dictionaryColumns) throws IOException {
+        File source = new File(csvFile);
+        if (!source.isFile()) {
+            throw new FileNotFoundException("CSV file not found: " + csvFile);
+        }
+        long columns = 0;
+        for (int column : dictionaryColumns) {
+            columns |= 1L << column;
+        }
+
+        CsvSnapshot snapshot = snapshots.get(csvFile);
+        if (snapshot != null && snapshot.sourceLength == source.length()
+                && snapshot.sourceModified == source.lastModified() && snapshot.dictionaryColumns == columns) {
+            return snapshot;
+        }
+
+        snapshot = new CsvSnapshot(csvFile);
+        if (!snapshot.open(source, columns)) {
+            build(source, snapshotPath(csvFile), columns);
+            if (!snapshot.open(source, columns)) {
+                throw new IOException("Snapshot of " + csvFile + " does not match the file after building it");
+            }
+        }
+        snapshots.put(csvFile, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Gets the path of the snapshot of a CSV file.
+     *
+     * @param csvFile the path to the CSV file
+     * @return the path to its snapshot
+     */
+    public static String snapshotPath(String csvFile) {
+        return csvFile + ".snap";
+    }
+
+    /**
+     * Gets the number of rows, which is the number of lines in the CSV file, header included.
+     *
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the fields of a row, as {@code line.split(",")} would give them.
+     *
+     * @param row the row number, 0 being the first line of the CSV file
+     * @return the fields of the row
+     */
+    public String[] getRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount + " in " + csvFile);
+        }
+        // Copy the row out of the mapping in one go and decode the fields from the copy
+        int start = buffer.getInt(rowOffsets + row * Integer.BYTES);
+        int end = row + 1 < rowCount ? buffer.getInt(rowOffsets + (row + 1) * Integer.BYTES) : rowOffsets;
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+
+        int[] position = {0};
+        String[] fields = new String[readVarint(bytes, position)];
+        for (int i = 0; i < fields.length; i++) {
+            if (i < Long.SIZE && (dictionaryColumns & 1L << i) != 0) {
+                fields[i] = dictionary[readVarint(bytes, position)];
+            } else {
+                int length = readVarint(bytes, position);
+                fields[i] = new String(bytes, position[0], length, StandardCharsets.UTF_8);
+                position[0] += length;
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Maps the snapshot if it exists and was built from the file as it is now.
+     *
+     * @return false if the snapshot is missing, out of date or unreadable and must be built
+     */
+    private boolean open(File source, long columns) throws IOException {
+        Path path = Paths.get(snapshotPath(csvFile));
+        if (!Files.exists(path)) {
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_SIZE) {
+                return false;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.getInt(0) != MAGIC || mapped.getLong(Integer.BYTES) != source.length()
+                    || mapped.getLong(Integer.BYTES + 3 * Long.BYTES) != columns) {
+                return false;
+            }
+
+            long modified = source.lastModified();
+            if (mapped.getLong(MODIFIED_OFFSET) != modified) {
+                if (mapped.getLong(MODIFIED_OFFSET + Long.BYTES) != checksum(source)) {
+                    return false;
+                }
+                ByteBuffer time = ByteBuffer.allocate(Long.BYTES).putLong(0, modified);
+                channel.write(time, MODIFIED_OFFSET);
+            }
+
+            ByteBuffer header = mapped.duplicate().position(Integer.BYTES + 4 * Long.BYTES);
+            rowCount = header.getInt();
+            String[] dictionary = new String[header.getInt()];
+            rowOffsets = header.getInt();
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = readString(header);
+            }
+
+            this.buffer = mapped;
+            this.dictionary = dictionary;
+            this.sourceLength = source.length();
+            this.sourceModified = modified;
+            this.dictionaryColumns = columns;
+            return true;
+        } catch (RuntimeException e) {
+            System.err.println("Invalid snapshot " + path + ", rebuilding it: " + e);
+            return false;
+        }
+    }
+
+    private static void build(File source, String snapshotFile, long columns) throws IOException {
+        // Read the time first, so a change while reading leaves the snapshot out of date rather than wrong
+        long modified = source.lastModified();
+        byte[] content = Files.readAllBytes(source.toPath());
+        CRC32 crc = new CRC32();
+        crc.update(content);
+
+        Map<String, Integer> numbers = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        List<Integer> offsets = new ArrayList<>();
+        ByteArrayOutputStream rows = new ByteArrayOutputStream();
+
+        try (BufferedReader reader = new BufferedReader(new StringReader(new String(content, StandardCharsets.UTF_8)))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                offsets.add(rows.size());
+                writeVarint(rows, fields.length);
+                for (int i = 0; i < fields.length; i++) {
+                    if (i < Long.SIZE && (columns & 1L << i) != 0) {
+                        Integer number = numbers.get(fields[i]);
+                        if (number == null) {
+                            number = dictionary.size();
+                            numbers.put(fields[i], number);
+                            dictionary.add(fields[i]);
+                        }
+                        writeVarint(rows, number);
+                    } else {
+                        writeString(rows, fields[i]);
+                    }
+                }
+            }
+        }
+
+        ByteArrayOutputStream words = new ByteArrayOutputStream();
+        for (String word : dictionary) {
+            writeString(words, word);
+        }
+        int rowsStart = HEADER_SIZE + words.size();
+
+        // Each build writes its own temporary file, so processes rebuilding at the same time do not mix their writes
+        Path target = Paths.get(snapshotFile).toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp.toFile())))) {
+            out.writeInt(MAGIC);
+            out.writeLong(content.length);
+            out.writeLong(modified);
+            out.writeLong(crc.getValue());
+            out.writeLong(columns);
+            out.writeInt(offsets.size());
+            out.writeInt(dictionary.size());
+            out.writeInt(rowsStart + rows.size());
+            words.writeTo(out);
+            rows.writeTo(out);
+            for (int offset : offsets) {
+                out.writeInt(rowsStart + offset);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static long checksum(File source) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(source.toPath())) {
+            int read;
+            while ((read = in.read(chunk)) > 0) {
+                crc.update(chunk, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readVarint(in);
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a non-negative number in 7-bit groups, low group first, so that the lengths and
+     * dictionary numbers of short fields take a single byte.
+     */
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static int readVarint(byte[] in, int[] position) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
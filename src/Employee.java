@@ -1,7 +1,10 @@
-import java.io.BufferedReader;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Scanner;
 
 public class Employee extends User {
@@ -211,51 +214,66 @@ public class Employee extends User {
 
         String inputDate = month + "/" + year;
 
-        String filename = "PaySlips.csv";
+        PaySlipWriter payslipStore = PaySlipWriter.getDefault();
+        String filename = payslipStore.getFilePath();
         boolean payslipFound = false;
 
+        if (payslipStore.isPartitioned()) {
+            // Only the partition of the requested month is read
+            try {
+                filename = payslipStore.getFilePath(LocalDate.of(Integer.parseInt(year), Integer.parseInt(month), 1));
+            } catch (NumberFormatException | DateTimeException e) {
+                filename = null;
+            }
+            if (filename == null) {
+                System.out.println("No payslip found for the provided date.");
+                return;
+            }
+        }
+
         try {
-            BufferedReader reader = new BufferedReader(new FileReader(filename));
-            reader.readLine();
+            List<String> lines;
+            if (payslipStore.isPartitioned() && !Files.exists(Paths.get(filename))) {
+                // Past tax years may have been moved to the compressed archive
+                String archiveFile = PaySlipArchive.archivePath(filename);
+                lines = Files.exists(Paths.get(archiveFile))
+                        ? PaySlipArchive.getArchive(archiveFile).find(String.valueOf(employeeId), inputDate)
+                        : List.of();
+            } else {
+                lines = PaySlipIndex.getIndex(filename).find(String.valueOf(employeeId), inputDate);
+            }
 
-            String line;
-            while ((line = reader.readLine()) != null) {
+            for (String line : lines) {
                 String[] details = line.split(",");
                 if (details.length == 11) {
                     int id = Integer.parseInt(details[0].trim());
-                    String date = details[2].trim();
+                    String name = details[1].trim();
+                    String jobTitle = details[3].trim();
+                    String scalePoint = details[4].trim();
+                    String grossPay = Money.format(Money.parse(details[5]));
+                    String incomeTax = Money.format(Money.parse(details[6]));
+                    String prsi = Money.format(Money.parse(details[7]));
+                    String usc = Money.format(Money.parse(details[8]));
+                    String unionFee = Money.format(Money.parse(details[9]));
+                    String netPay = Money.format(Money.parse(details[10]));
 
-                    if (id == employeeId && date.equals(inputDate)) {
-                        String name = details[1].trim();
-                        String jobTitle = details[3].trim();
-                        String scalePoint = details[4].trim();
-                        String grossPay = details[5].trim();
-                        String incomeTax = details[6].trim();
-                        String prsi = details[7].trim();
-                        String usc = details[8].trim();
-                        String unionFee = details[9].trim();
-                        String netPay = details[10].trim();
+                    System.out.println("------------------------------------------------------------------");
+                    System.out.println("Company Name: University Of Limerick    Employee ID: " + id);
+                    System.out.println("Emp. Name: " + name + "     Date Payslip Created: 25/" + inputDate);
+                    System.out.println("Emp. Title: " + jobTitle + "    Emp. Scale Point: " + scalePoint);
+                    System.out.println("------------------------------------------------------------------");
+                    System.out.println("--------Payments---------------------------------Deductions-------");
+                    System.out.println("Gross Pay: " + grossPay + "                     Tax: " + incomeTax);
+                    System.out.println("                                                    PRSI: " + prsi);
+                    System.out.println("                                                    USC: " + usc);
+                    System.out.println("------------------------------------------------------------------");
+                    System.out.println("Net Pay This Month: " + netPay);
+                    System.out.println("------------------------------------------------------------------");
 
-                        System.out.println("------------------------------------------------------------------");
-                        System.out.println("Company Name: University Of Limerick    Employee ID: " + id);
-                        System.out.println("Emp. Name: " + name + "     Date Payslip Created: 25/" + inputDate);
-                        System.out.println("Emp. Title: " + jobTitle + "    Emp. Scale Point: " + scalePoint);
-                        System.out.println("------------------------------------------------------------------");
-                        System.out.println("--------Payments---------------------------------Deductions-------");
-                        System.out.println("Gross Pay: " + grossPay + "                     Tax: " + incomeTax);
-                        System.out.println("                                                    PRSI: " + prsi);
-                        System.out.println("                                                    USC: " + usc);
-                        System.out.println("------------------------------------------------------------------");
-                        System.out.println("Net Pay This Month: " + netPay);
-                        System.out.println("------------------------------------------------------------------");
-
-                        payslipFound = true;
-                    }
+                    payslipFound = true;
                 }
             }
 
-            reader.close();
-
             if (!payslipFound) {
                 System.out.println("No payslip found for the provided date.");
             }
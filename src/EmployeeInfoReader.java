@@ -1,5 +1,3 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 
 public class EmployeeInfoReader {
@@ -21,71 +19,25 @@ public class EmployeeInfoReader {
     /**
      * Gets the job title of an employee by their username.
      *
-     * <p>This method reads a CSV file to find the employee with the given username
-     * and returns their job title.</p>
+     * <p>This method looks up the employee with the given username in the
+     * {@link EmployeeRepository} of the CSV file and returns their job title.</p>
      *
      * @param username the username of the employee
      * @return the job title of the employee, or <code>null</code> if not found
      * @throws IOException if an error occurs while reading the file
      */
     public String getJobTitleByUsername(String username) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-
-
-            reader.readLine();
-
-
-            while ((line = reader.readLine()) != null) {
-                String[] fields = line.split(",");
-
-
-                if (fields[1].trim().equalsIgnoreCase(username)) {
-                    return fields[6].trim();
-                }
-            }
-        }
-
-        return null;
+        String[] fields = EmployeeRepository.getRepository(filePath).getByUsername(username);
+        return fields == null ? null : fields[JOB_TITLE_INDEX].trim();
     }
 
     public String getScalePointForPartTime(String username) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-
-
-            reader.readLine();
-
-
-            while ((line = reader.readLine()) != null) {
-                String[] fields = line.split(",");
-
-
-                if (fields[1].trim().equalsIgnoreCase(username)) {
-                    return fields[7].trim();
-                }
-            }
-        }
-
-        return null;
+        String[] fields = EmployeeRepository.getRepository(filePath).getByUsername(username);
+        return fields == null ? null : fields[SCALE_POINT_INDEX].trim();
     }
 
     public String[] getEmployeeDataByUsername(String username) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            reader.readLine();
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] fields = line.split(",");
-
-
-                if (fields[1].trim().equalsIgnoreCase(username)) {
-                    return fields;
-                }
-            }
-        }
-
-        return null;
+        return EmployeeRepository.getRepository(filePath).getByUsername(username);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,622 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+public class EmployeeRepository {
+    static final String HEADER = "id,username,name,dob,ppsNumber,password,jobTitle,scalePoint,pendingPromotionFlag,previousJobTitle,previousScalePoint,yearsAtTop";
+    static final String LOG_HEADER = "timestamp,action," + HEADER;
+
+    // Once the log grows past this many bytes, it is folded into the employee information file
+    private static final long COMPACTION_THRESHOLD = 1 << 20;
+
+    // Employees are spread over this many locks, so changes to different employees rarely wait for each other
+    private static final int STRIPES = 64;
+    // The byte of the lock file that guards the file and its log, after the bytes of the employee locks
+    private static final long STORE_LOCK = STRIPES;
+
+    // Compacted logs are archived with the time of the compaction, to the millisecond, appended to their name
+    private static final DateTimeFormatter ARCHIVE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
+
+    private static final Map<String, EmployeeRepository> repositories = new HashMap<>();
+    private static final ExecutorService compactor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "employee-log-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private String filePath;
+    private long lastModified;
+    private long length;
+    // The number of bytes of the log that have been replayed into the records
+    private long logLength;
+    private boolean compactionQueued;
+    private ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private FileChannel lockChannel;
+    private List<String[]> records = new ArrayList<>();
+    // Positions in records
+    private Map<Integer, Integer> recordsById = new HashMap<>();
+    // Keyed by lower-case username, as usernames are matched without regard to case
+    private Map<String, Integer> recordsByUsername = new HashMap<>();
+
+    private EmployeeRepository(String filePath) {
+        this.filePath = filePath;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Returns the shared repository of an employee information file, loading it on first use.
+     *
+     * <p>Every record is loaded once and indexed by employee ID and by username, so finding an
+     * employee is a hash lookup rather than a scan of the file. The records are loaded from
+     * the file's {@link CsvSnapshot}, with the job titles kept in its dictionary, so a large
+     * file is not split into fields again on every start. If the file is changed in any
+     * other way than through the repository, which is noticed from its modification time and
+     * length, the repository is loaded again on next use.</p>
+     *
+     * <p>Changes are not written into the file itself. Each new or changed record is appended,
+     * with the time and the action that changed it, to a mutation log next to the file (e.g.
+     * EmployeeInfo.csv.log), which keeps the full history of changes since the last
+     * compaction. Loading replays the log over the file, the latest entry for an employee
+     * replacing their record. Once the log grows past 1 MB it is compacted in the background:
+     * the merged records are written to the file and the log is moved aside to an archive
+     * named after the time of the compaction (e.g. EmployeeInfo.csv.log.20241225093000123),
+     * so no change is lost from the history.</p>
+     *
+     * @param filePath the path to the employee information file (e.g., "EmployeeInfo.csv")
+     * @return the repository of the file
+     */
+    public static synchronized EmployeeRepository getRepository(String filePath) {
+        return repositories.computeIfAbsent(filePath, EmployeeRepository::new);
+    }
+
+    /**
+     * Gets the path of the mutation log of an employee information file.
+     *
+     * @param filePath the path to the employee information file
+     * @return the path to its log
+     */
+    public static String logPath(String filePath) {
+        return filePath + ".log";
+    }
+
+    /**
+     * Reads the records in the mutation log of an employee information file, for readers that
+     * stream the file rather than going through a repository. A record in the result replaces
+     * the employee's record in the file; the others are new employees, to be placed after the
+     * file's records in the order given.
+     *
+     * @param filePath the path to the employee information file
+     * @return the latest logged record of each employee, keyed by employee ID, in the order the
+     *         employees first appear in the log; empty if there is no log
+     * @throws IOException if the log cannot be read
+     */
+    public static Map<String, String[]> readLog(String filePath) throws IOException {
+        Map<String, String[]> logged = new LinkedHashMap<>();
+        readLogEntries(filePath, 0, record -> logged.put(record[0].trim(), record));
+        return logged;
+    }
+
+    /**
+     * Finds an employee's record by their ID.
+     *
+     * @param id the employee ID
+     * @return a copy of the employee's fields, or null if there is no employee with that ID
+     * @throws FileNotFoundException if the file does not exist
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized String[] getById(int id) throws IOException {
+        refreshIfChanged();
+        Integer position = recordsById.get(id);
+        return position == null ? null : records.get(position).clone();
+    }
+
+    /**
+     * Finds an employee's record by their username, ignoring case.
+     *
+     * @param username the username
+     * @return a copy of the employee's fields, or null if there is no employee with that username
+     * @throws FileNotFoundException if the file does not exist
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized String[] getByUsername(String username) throws IOException {
+        refreshIfChanged();
+        Integer position = recordsByUsername.get(username.trim().toLowerCase(Locale.ROOT));
+        return position == null ? null : records.get(position).clone();
+    }
+
+    /**
+     * Gets every employee record, in file order, followed by the employees added since the
+     * last compaction.
+     *
+     * @return copies of the records, which can be changed and passed to {@link #saveAll(List)}
+     * @throws FileNotFoundException if the file does not exist
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized List<String[]> getAll() throws IOException {
+        refreshIfChanged();
+        return copyRecords();
+    }
+
+    /**
+     * Adds a new employee record, logging it as a hire. If the employee information file does
+     * not exist yet, it is created with the record instead.
+     *
+     * @param record the employee's fields
+     * @throws IOException if an employee with the same ID already exists, or the record cannot be written
+     */
+    public synchronized void add(String[] record) throws IOException {
+        withStoreLock(() -> {
+            if (!new File(filePath).exists()) {
+                write(Collections.singletonList(record));
+                return;
+            }
+            refresh();
+            // Checked again here, as another session may have hired under the same ID since the caller checked
+            if (positionOf(record) != null) {
+                throw new IOException("An employee with ID " + record[0] + " already exists in " + filePath);
+            }
+            append(Collections.singletonList(record), "hire");
+        });
+    }
+
+    /**
+     * Changes an employee's record, appending the changed record to the mutation log.
+     *
+     * <p>The record is read, changed and written under a lock on the employee, so two sessions
+     * changing the same employee at the same time, in this process or in others working on
+     * the same file, take turns rather than one overwriting the other's change. Employees are
+     * spread over 64 locks: within the process, one {@link ReentrantLock} each, and between
+     * processes, one byte each of a lock file next to the file (e.g. EmployeeInfo.csv.lock),
+     * locked with {@link FileChannel#lock(long, long, boolean)}. Changes to employees under
+     * different locks run side by side. Another byte of the lock file is held only while the
+     * file and its log are read or appended to, never while the change is made.</p>
+     *
+     * @param id the employee ID
+     * @param action what changed the record, recorded in the log (e.g., "promotion")
+     * @param change given a copy of the employee's current fields, returns the changed fields,
+     *               or null to leave the record as it is
+     * @return the changed record, or null if it was left as it is
+     * @throws IOException if there is no employee with that ID, or the record cannot be read or written
+     */
+    public String[] modify(int id, String action, UnaryOperator<String[]> change) throws IOException {
+        int stripe = Math.floorMod(Integer.hashCode(id), STRIPES);
+        stripes[stripe].lock();
+        FileLock employee = null;
+        try {
+            employee = lockRegion(stripe, 1);
+            String[] record;
+            synchronized (this) {
+                withStoreLock(this::refresh);
+                Integer position = recordsById.get(id);
+                if (position == null) {
+                    throw new IOException("No employee with ID " + id + " in " + filePath);
+                }
+                record = records.get(position).clone();
+            }
+
+            String[] changed = change.apply(record);
+            if (changed != null) {
+                synchronized (this) {
+                    withStoreLock(() -> append(Collections.singletonList(changed), action));
+                }
+            }
+            return changed;
+        } finally {
+            if (employee != null) {
+                employee.release();
+            }
+            stripes[stripe].unlock();
+        }
+    }
+
+    /**
+     * Changes every employee's record, like {@link #modify(int, String, UnaryOperator)} but
+     * holding the locks of all employees, and appends the changed records to the mutation log
+     * in a single write.
+     *
+     * @param action what changed the records, recorded in the log (e.g., "increment")
+     * @param change given a copy of an employee's current fields, returns the changed fields,
+     *               or null to leave the record as it is
+     * @return the number of records changed
+     * @throws IOException if the records cannot be read or written
+     */
+    public int modifyAll(String action, UnaryOperator<String[]> change) throws IOException {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+        FileLock employees = null;
+        try {
+            employees = lockRegion(0, STRIPES);
+            List<String[]> current;
+            synchronized (this) {
+                withStoreLock(this::refresh);
+                current = copyRecords();
+            }
+
+            List<String[]> changed = new ArrayList<>();
+            for (String[] record : current) {
+                String[] updated = change.apply(record);
+                if (updated != null) {
+                    changed.add(updated);
+                }
+            }
+            if (!changed.isEmpty()) {
+                synchronized (this) {
+                    withStoreLock(() -> append(changed, action));
+                }
+            }
+            return changed.size();
+        } finally {
+            if (employees != null) {
+                employees.release();
+            }
+            for (int i = STRIPES - 1; i >= 0; i--) {
+                stripes[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * Folds the mutation log into the employee information file: the merged records are
+     * written to the file, which is replaced in one step, and the log is archived. Writers,
+     * in this process and others, wait for the compaction to finish. If the process stops
+     * between the two steps, the left-over log is replayed again on load, which changes
+     * nothing as every entry holds a whole record.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void compact() throws IOException {
+        withStoreLock(() -> {
+            refresh();
+            if (logLength > 0) {
+                write(copyRecords());
+            }
+        });
+    }
+
+    /**
+     * Replaces every record, writing the header row followed by the records to the file, and
+     * archives the mutation log, which the file now includes. Records with fewer than 12 fields
+     * are padded, with a yearsAtTop of 0.
+     *
+     * @param updated the records to write
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void saveAll(List<String[]> updated) throws IOException {
+        withStoreLock(() -> write(updated));
+    }
+
+    /**
+     * Runs an action holding the byte of the lock file that guards the file and its log
+     * against other processes. Only called while holding this repository's monitor, so no
+     * two threads of the process ask for it at once.
+     */
+    private void withStoreLock(IOAction action) throws IOException {
+        FileLock store = lockRegion(STORE_LOCK, 1);
+        try {
+            action.run();
+        } finally {
+            store.release();
+        }
+    }
+
+    /**
+     * Locks a region of the lock file, polling for it rather than waiting in the operating
+     * system. File locks belong to the whole process, so a thread waiting for one while
+     * another thread of the process holds a different one can be taken for a deadlock and
+     * refused.
+     */
+    private FileLock lockRegion(long position, long size) throws IOException {
+        FileChannel channel = lockChannel();
+        for (long wait = 1; ; wait = Math.min(2 * wait, 50)) {
+            FileLock lock = channel.tryLock(position, size, false);
+            if (lock != null) {
+                return lock;
+            }
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to lock " + filePath);
+            }
+        }
+    }
+
+    private synchronized FileChannel lockChannel() throws IOException {
+        if (lockChannel == null || !lockChannel.isOpen()) {
+            lockChannel = FileChannel.open(Paths.get(filePath + ".lock"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        return lockChannel;
+    }
+
+    private List<String[]> copyRecords() {
+        List<String[]> copies = new ArrayList<>(records.size());
+        for (String[] record : records) {
+            copies.add(record.clone());
+        }
+        return copies;
+    }
+
+    /**
+     * Appends records to the mutation log in a single write and replays the log from where it
+     * was last read, which brings in the entries of other processes as well as these.
+     */
+    private void append(List<String[]> updated, String action) throws IOException {
+        refresh();
+        Path log = Paths.get(logPath(filePath));
+        String prefix = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS) + "," + action + ",";
+        StringBuilder entries = new StringBuilder(updated.size() * 128);
+        if (!Files.exists(log) || Files.size(log) == 0) {
+            entries.append(LOG_HEADER).append('\n');
+        }
+        for (String[] record : updated) {
+            entries.append(prefix).append(String.join(",", record)).append('\n');
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(entries.toString().getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(log,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        replayLog(logLength);
+
+        if (logLength > COMPACTION_THRESHOLD && !compactionQueued) {
+            compactionQueued = true;
+            compactor.execute(() -> {
+                try {
+                    compact();
+                } catch (IOException e) {
+                    System.err.println("Error compacting " + logPath(filePath) + ": " + e.getMessage());
+                } finally {
+                    synchronized (this) {
+                        compactionQueued = false;
+                    }
+                }
+            });
+        }
+    }
+
+    private void write(List<String[]> updated) throws IOException {
+        List<String[]> padded = new ArrayList<>(updated.size());
+        Path target = Paths.get(filePath);
+        Path temp = Paths.get(filePath + ".tmp");
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(temp.toFile(), StandardCharsets.UTF_8))) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (String[] record : updated) {
+                if (record.length < 12) {
+                    record = Arrays.copyOf(record, 12);
+                    record[11] = "0";
+                }
+                writer.write(String.join(",", record));
+                writer.newLine();
+                padded.add(record.clone());
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        archiveLog();
+
+        clear();
+        for (String[] record : padded) {
+            index(record);
+        }
+        recordFileState();
+        logLength = 0;
+    }
+
+    /**
+     * Moves the mutation log, if there is one, to an archive named after the current time, so
+     * the history of changes is kept once the file includes them.
+     */
+    private void archiveLog() throws IOException {
+        Path log = Paths.get(logPath(filePath));
+        if (Files.exists(log)) {
+            Path archive = Paths.get(logPath(filePath) + "." + LocalDateTime.now().format(ARCHIVE_FORMATTER));
+            Files.move(log, archive, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Refreshes the records for a lookup. The file and its log are first compared with their
+     * state when last read without taking the store lock, so a lookup only waits for other
+     * processes when one of them has changed something.
+     */
+    private void refreshIfChanged() throws IOException {
+        File file = new File(filePath);
+        if (file.isFile() && file.lastModified() == lastModified && file.length() == length
+                && new File(logPath(filePath)).length() == logLength) {
+            return;
+        }
+        withStoreLock(this::refresh);
+    }
+
+    private void refresh() throws IOException {
+        File file = new File(filePath);
+        if (!file.isFile()) {
+            throw new FileNotFoundException("Employee information file not found: " + filePath);
+        }
+
+        File log = new File(logPath(filePath));
+        if (file.lastModified() == lastModified && file.length() == length) {
+            if (log.length() == logLength) {
+                return;
+            }
+            if (log.length() > logLength) {
+                replayLog(logLength);
+                return;
+            }
+        }
+
+        clear();
+        CsvSnapshot snapshot = CsvSnapshot.getSnapshot(filePath, 6, 9);
+        int row = 0;
+
+        if (snapshot.getRowCount() > 0 && String.join(",", snapshot.getRow(0)).toLowerCase().contains("id")) {
+            row++;
+        }
+        for (; row < snapshot.getRowCount(); row++) {
+            index(snapshot.getRow(row));
+        }
+        recordFileState();
+        logLength = 0;
+        replayLog(0);
+    }
+
+    private void replayLog(long from) throws IOException {
+        logLength = readLogEntries(filePath, from, this::apply);
+    }
+
+    /**
+     * Passes the record of every log entry from a position to the end of the log to an
+     * action. A last entry without its newline is still being written, or was torn by a
+     * crash, and is left out.
+     *
+     * @return the position after the last complete entry
+     */
+    private static long readLogEntries(String filePath, long from, Consumer<String[]> action) throws IOException {
+        File log = new File(logPath(filePath));
+        if (!log.isFile()) {
+            return from;
+        }
+
+        byte[] tail;
+        try (RandomAccessFile file = new RandomAccessFile(log, "r")) {
+            tail = new byte[(int) Math.max(0, file.length() - from)];
+            file.seek(from);
+            file.readFully(tail);
+        }
+
+        int complete = tail.length;
+        while (complete > 0 && tail[complete - 1] != '\n') {
+            complete--;
+        }
+        for (String line : new String(tail, 0, complete, StandardCharsets.UTF_8).split("\n")) {
+            String[] record = parseLogEntry(line);
+            if (record != null) {
+                action.accept(record);
+            }
+        }
+        return from + complete;
+    }
+
+    /**
+     * Gets the record of a log entry (timestamp,action,record), or null for the header and
+     * blank lines.
+     */
+    private static String[] parseLogEntry(String line) {
+        if (line.isEmpty() || line.startsWith("timestamp,")) {
+            return null;
+        }
+        String[] fields = line.split(",", 3);
+        if (fields.length < 3) {
+            System.err.println("Invalid line format in employee log: " + line);
+            return null;
+        }
+        return fields[2].split(",");
+    }
+
+    private Integer positionOf(String[] record) {
+        try {
+            return recordsById.get(Integer.parseInt(record[0].trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the record of the same employee, or adds the record if the employee is new.
+     */
+    private void apply(String[] record) {
+        Integer position = positionOf(record);
+        if (position == null) {
+            index(record);
+            return;
+        }
+
+        String oldUsername = usernameKey(records.get(position));
+        records.set(position, record);
+        String newUsername = usernameKey(record);
+        if (oldUsername != null && !oldUsername.equals(newUsername) && position.equals(recordsByUsername.get(oldUsername))) {
+            recordsByUsername.remove(oldUsername);
+        }
+        if (newUsername != null) {
+            recordsByUsername.putIfAbsent(newUsername, position);
+        }
+    }
+
+    private void clear() {
+        records.clear();
+        recordsById.clear();
+        recordsByUsername.clear();
+    }
+
+    /**
+     * Adds a record to the indexes. If two records share an ID or username, lookups return
+     * the first of them, as a scan of the file would.
+     */
+    private void index(String[] record) {
+        int position = records.size();
+        records.add(record);
+        try {
+            recordsById.putIfAbsent(Integer.parseInt(record[0].trim()), position);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid employee ID in " + filePath + ": " + record[0]);
+        }
+        String username = usernameKey(record);
+        if (username != null) {
+            recordsByUsername.putIfAbsent(username, position);
+        }
+    }
+
+    private static String usernameKey(String[] record) {
+        return record.length > 1 ? record[1].trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    private void recordFileState() {
+        File file = new File(filePath);
+        lastModified = file.lastModified();
+        length = file.length();
+    }
+
+    /**
+     * An action on the file or its log, run by {@link #withStoreLock(IOAction)}.
+     */
+    private interface IOAction {
+        void run() throws IOException;
+    }
+}
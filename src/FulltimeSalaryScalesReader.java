@@ -1,12 +1,13 @@
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 
 public class FulltimeSalaryScalesReader {
     private String filePath;
+    private SalaryScaleTable table;
 
     /**
-     * Constructor to initialize the path to the FulltimeSalaryScales.csv file.
+     * Constructor to initialize the path to the FulltimeSalaryScales.csv file. The shared
+     * {@link SalaryScaleTable} is fetched on the first lookup and kept for the reader's
+     * later lookups, so changes to the file are picked up by a new reader.
      *
      * @param filePath Path to the CSV file containing salary scales.
      */
@@ -15,7 +16,17 @@ public class FulltimeSalaryScalesReader {
     }
 
     /**
-     * Retrieves the salary for a specific job title and scale point.
+     * Constructor to use an already loaded salary scale table, so that lookups do not
+     * check the CSV file for changes on every call.
+     *
+     * @param table The loaded salary scale table.
+     */
+    public FulltimeSalaryScalesReader(SalaryScaleTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Retrieves the salary for a specific job title and scale point from the shared {@link SalaryScaleTable}.
      *
      * @param jobTitle   The job title of the employee.
      * @param scalePoint The scale point of the employee.
@@ -23,18 +34,13 @@ public class FulltimeSalaryScalesReader {
      * @throws IOException If the file cannot be read or the combination is not found.
      */
     public double getSalary(String jobTitle, String scalePoint) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-
-            reader.readLine();
-
-            while ((line = reader.readLine()) != null) {
-                String[] fields = line.split(",");
-
-                if (fields[0].trim().equals(jobTitle) && fields[1].trim().equals(scalePoint)) {
-                    return Double.parseDouble(fields[2].trim());
-                }
+        try {
+            double salary = getTable().getSalary(jobTitle, Integer.parseInt(scalePoint.trim()));
+            if (!Double.isNaN(salary)) {
+                return salary;
             }
+        } catch (NumberFormatException e) {
+            // Falls through to the not found error below
         }
 
         throw new IOException("Salary not found for Job Title: " + jobTitle + " and Scale Point: " + scalePoint);
@@ -43,46 +49,36 @@ public class FulltimeSalaryScalesReader {
     /**
      * Retrieves the hourly rate for a given job title.
      *
-     * <p>This method reads from a CSV file to find the annual salary associated with the specified
-     * job title. It calculates the hourly rate by dividing the annual salary by 2080
+     * <p>This method looks up the annual salary associated with the specified job title in the
+     * shared {@link SalaryScaleTable}. It calculates the hourly rate by dividing the annual salary by 2080
      * (the typical number of working hours in a year).</p>
      *
      * @param jobTitle   the job title for which to retrieve the hourly rate
      * @param scalePoint
      * @return the calculated hourly rate, or <code>0.0</code> if the job title is not found
      * @throws IOException           if an error occurs while reading the file
-     * @throws NumberFormatException if the salary field cannot be parsed as a double
      */
     public double getHourlyRate(String jobTitle, int scalePoint) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-
-
-            reader.readLine();
-
-
-            while ((line = reader.readLine()) != null) {
-                String[] fields = line.split(",");
+        double annualSalary = getTable().getSalary(jobTitle, scalePoint);
 
-                if (fields.length >= 3) {
-                    String currentJobTitle = fields[0].trim();
-                    int currentScalePoint = Integer.parseInt(fields[1].trim());
-
-
-                    if (currentJobTitle.equalsIgnoreCase(jobTitle) && currentScalePoint == scalePoint) {
-
-                        double annualSalary = Double.parseDouble(fields[2].trim());
-                        return annualSalary / 2080;
-                    }
-                }
-            }
+        if (!Double.isNaN(annualSalary)) {
+            return annualSalary / 2080;
         }
 
-
         System.err.println("No match found for jobTitle: " + jobTitle + " and scalePoint: " + scalePoint);
         return 0.0;
     }
 
-
+    /**
+     * Gets the salary scale table lookups are made in, loading it on first use.
+     *
+     * @return The loaded salary scale table.
+     * @throws IOException If the file cannot be read.
+     */
+    public SalaryScaleTable getTable() throws IOException {
+        if (table == null) {
+            table = SalaryScaleTable.getTable(filePath);
+        }
+        return table;
+    }
 }
-
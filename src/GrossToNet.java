@@ -0,0 +1,120 @@
+public class GrossToNet {
+    private final long grossPay;
+    private final long incomeTax;
+    private final long prsi;
+    private final long usc;
+    private final long unionFee;
+    private final long netPay;
+
+    private GrossToNet(long grossPay, long incomeTax, long prsi, long usc, long unionFee) {
+        this.grossPay = grossPay;
+        this.incomeTax = incomeTax;
+        this.prsi = prsi;
+        this.usc = usc;
+        this.unionFee = unionFee;
+        this.netPay = grossPay - (incomeTax + prsi + usc + unionFee);
+    }
+
+    /**
+     * Calculates the deductions and net pay for a gross pay amount.
+     *
+     * <p>Each deduction is rounded to the cent, and net pay is gross pay less the rounded
+     * deductions, so the amounts always add up.</p>
+     *
+     * @param grossPay the gross pay, in cents
+     * @param taxRules the tax rules to calculate the deductions with
+     * @return the gross pay, deductions and net pay
+     */
+    public static GrossToNet calculate(long grossPay, TaxRules taxRules) {
+        double gross = Money.toAmount(grossPay);
+        return new GrossToNet(grossPay,
+                Money.fromAmount(taxRules.getIncomeTax(gross)),
+                Money.fromAmount(taxRules.getPRSI(gross)),
+                Money.fromAmount(taxRules.getUSC(gross)),
+                Money.fromAmount(taxRules.getUnionFee(gross)));
+    }
+
+    /**
+     * Calculates the deductions and net pay for a gross pay amount on a cumulative basis.
+     *
+     * <p>Income tax and USC are worked out on the employee's gross pay for the tax year so
+     * far, with the bands widened to cover every pay period of the tax year up to and
+     * including this one, less what has already been deducted this tax year. The period is
+     * the month of the pay date, not the number of payslips so far, so an employee who
+     * started during the year or missed a month gets the same cut-offs as everyone else,
+     * from their first payslip on, and running a month again does not move them on a
+     * period. An employee whose pay varies therefore pays the same tax over the year as one
+     * paid the same total evenly, and may get a refund in a month when their pay drops.
+     * PRSI and the union fee are charged on this period's pay alone.</p>
+     *
+     * @param grossPay the gross pay of this period, in cents
+     * @param yearToDate the employee's totals for the tax year before this period
+     * @param period the pay period of the tax year, i.e. the month of the pay date (1-12)
+     * @param taxRules the tax rules to calculate the deductions with
+     * @return the gross pay, deductions and net pay of this period
+     */
+    public static GrossToNet calculate(long grossPay, PayrollLedger.Entry yearToDate, int period, TaxRules taxRules) {
+        int periods = Math.max(1, period);
+        double gross = Money.toAmount(grossPay);
+        double cumulativeGross = Money.toAmount(yearToDate.getGrossPay() + grossPay);
+        return new GrossToNet(grossPay,
+                Money.fromAmount(taxRules.getIncomeTax(cumulativeGross, periods)) - yearToDate.getIncomeTax(),
+                Money.fromAmount(taxRules.getPRSI(gross)),
+                Money.fromAmount(taxRules.getUSC(cumulativeGross, periods)) - yearToDate.getUSC(),
+                Money.fromAmount(taxRules.getUnionFee(gross)));
+    }
+
+    /**
+     * Gets the gross pay.
+     *
+     * @return the gross pay, in cents
+     */
+    public long getGrossPay() {
+        return grossPay;
+    }
+
+    /**
+     * Gets the income tax.
+     *
+     * @return the income tax, in cents
+     */
+    public long getIncomeTax() {
+        return incomeTax;
+    }
+
+    /**
+     * Gets the PRSI.
+     *
+     * @return the PRSI, in cents
+     */
+    public long getPRSI() {
+        return prsi;
+    }
+
+    /**
+     * Gets the USC.
+     *
+     * @return the USC, in cents
+     */
+    public long getUSC() {
+        return usc;
+    }
+
+    /**
+     * Gets the union fee.
+     *
+     * @return the union fee, in cents
+     */
+    public long getUnionFee() {
+        return unionFee;
+    }
+
+    /**
+     * Gets the net pay.
+     *
+     * @return the net pay, in cents
+     */
+    public long getNetPay() {
+        return netPay;
+    }
+}
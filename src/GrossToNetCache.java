@@ -0,0 +1,207 @@
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class GrossToNetCache {
+    private static volatile GrossToNetCache shared;
+
+    private final SalaryScaleTable salaryTable;
+    private final TaxRules taxRules;
+    // Job title as written in EmployeeInfo.csv -> results indexed by scale point, null until calculated
+    private final Map<String, GrossToNet[]> resultsByTitle = new ConcurrentHashMap<>();
+    // Cumulative results of the pay period last asked for, by gross pay and year-to-date totals
+    private volatile PeriodResults periodResults = new PeriodResults(0);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private GrossToNetCache(SalaryScaleTable salaryTable, TaxRules taxRules) {
+        this.salaryTable = salaryTable;
+        this.taxRules = taxRules;
+    }
+
+    /**
+     * Returns the shared cache for the given salary scales and tax rules.
+     *
+     * <p>The cache holds the amounts of each grade for a single month taken on its own, and
+     * the cumulative amounts of each pay period keyed on the gross pay and the year-to-date
+     * totals they were calculated from. Employees on the same grade who have been paid the
+     * same this tax year, such as everyone on a grade who started in the same month, share
+     * one calculation. Only the cumulative amounts of the latest pay period are kept.</p>
+     *
+     * <p>{@link SalaryScaleTable} and {@link TaxRules} load a new instance whenever their file
+     * changes, so a cache only ever holds results for one version of the scales and one
+     * version of the rules. Asking for the cache with a different table or rules replaces
+     * the shared cache with an empty one.</p>
+     *
+     * @param salaryTable the salary scales the gross pay is taken from
+     * @param taxRules the tax rules the deductions are calculated with
+     * @return the cache for that table and those rules
+     */
+    public static GrossToNetCache getCache(SalaryScaleTable salaryTable, TaxRules taxRules) {
+        GrossToNetCache cache = shared;
+        if (cache != null && cache.salaryTable == salaryTable && cache.taxRules == taxRules) {
+            return cache;
+        }
+
+        synchronized (GrossToNetCache.class) {
+            cache = shared;
+            if (cache == null || cache.salaryTable != salaryTable || cache.taxRules != taxRules) {
+                cache = new GrossToNetCache(salaryTable, taxRules);
+                shared = cache;
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Gets the monthly gross pay, deductions and net pay of a full-time employee on the given
+     * job title and scale point, calculating them on first use.
+     *
+     * @param jobTitle the job title as written in EmployeeInfo.csv
+     * @param scalePoint the scale point
+     * @return the gross-to-net result for the grade
+     * @throws IOException if the salary scales have no salary for the grade
+     */
+    public GrossToNet get(String jobTitle, int scalePoint) throws IOException {
+        return getForGrade(jobTitle, scalePoint, true);
+    }
+
+    private GrossToNet getForGrade(String jobTitle, int scalePoint, boolean counted) throws IOException {
+        GrossToNet[] results = resultsByTitle.get(jobTitle);
+        if (results == null) {
+            int maxScalePoint = salaryTable.getMaxScalePoint(jobTitle);
+            if (maxScalePoint < 0) {
+                throw salaryNotFound(jobTitle, scalePoint);
+            }
+            results = resultsByTitle.computeIfAbsent(jobTitle, key -> new GrossToNet[maxScalePoint + 1]);
+        }
+        if (scalePoint < 0 || scalePoint >= results.length) {
+            throw salaryNotFound(jobTitle, scalePoint);
+        }
+
+        // Two threads may both calculate a missing result; they produce the same value
+        GrossToNet result = results[scalePoint];
+        if (result != null) {
+            if (counted) {
+                hits.increment();
+            }
+            return result;
+        }
+
+        double annualSalary = salaryTable.getSalary(jobTitle, scalePoint);
+        if (Double.isNaN(annualSalary)) {
+            throw salaryNotFound(jobTitle, scalePoint);
+        }
+        result = GrossToNet.calculate(Money.divide(Money.fromAmount(annualSalary), 12), taxRules);
+        results[scalePoint] = result;
+        if (counted) {
+            misses.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Gets the gross pay, deductions and net pay of a full-time employee on the given job
+     * title and scale point for a pay period, on the cumulative basis described in
+     * {@link GrossToNet#calculate(long, PayrollLedger.Entry, int, TaxRules)}, calculating
+     * them on first use.
+     *
+     * @param jobTitle the job title as written in EmployeeInfo.csv
+     * @param scalePoint the scale point
+     * @param yearToDate the employee's totals for the tax year before this period
+     * @param period the pay period of the tax year, i.e. the month of the pay date (1-12)
+     * @return the gross-to-net result for the grade, totals and period
+     * @throws IOException if the salary scales have no salary for the grade
+     */
+    public GrossToNet get(String jobTitle, int scalePoint, PayrollLedger.Entry yearToDate, int period) throws IOException {
+        long grossPay = getForGrade(jobTitle, scalePoint, false).getGrossPay();
+        PeriodResults results = periodResults;
+        if (results.period != period) {
+            synchronized (this) {
+                results = periodResults;
+                if (results.period != period) {
+                    results = new PeriodResults(period);
+                    periodResults = results;
+                }
+            }
+        }
+
+        CumulativeKey key = new CumulativeKey(grossPay, yearToDate);
+        GrossToNet result = results.results.get(key);
+        if (result != null) {
+            hits.increment();
+            return result;
+        }
+
+        result = GrossToNet.calculate(grossPay, yearToDate, period, taxRules);
+        results.results.put(key, result);
+        misses.increment();
+        return result;
+    }
+
+    private static IOException salaryNotFound(String jobTitle, int scalePoint) {
+        return new IOException("Salary not found for Job Title: " + jobTitle + " and Scale Point: " + scalePoint);
+    }
+
+    /**
+     * Gets the number of lookups answered from the cache.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups that had to calculate their result.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private static class PeriodResults {
+        private final int period;
+        private final Map<CumulativeKey, GrossToNet> results = new ConcurrentHashMap<>();
+
+        private PeriodResults(int period) {
+            this.period = period;
+        }
+    }
+
+    /**
+     * The inputs of a cumulative calculation besides the period. PRSI paid so far is left
+     * out, as it does not affect this period's deductions.
+     */
+    private static class CumulativeKey {
+        private final long grossPay;
+        private final long grossPayToDate;
+        private final long incomeTaxToDate;
+        private final long uscToDate;
+
+        private CumulativeKey(long grossPay, PayrollLedger.Entry yearToDate) {
+            this.grossPay = grossPay;
+            this.grossPayToDate = yearToDate.getGrossPay();
+            this.incomeTaxToDate = yearToDate.getIncomeTax();
+            this.uscToDate = yearToDate.getUSC();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CumulativeKey)) {
+                return false;
+            }
+            CumulativeKey other = (CumulativeKey) o;
+            return grossPay == other.grossPay && grossPayToDate == other.grossPayToDate
+                    && incomeTaxToDate == other.incomeTaxToDate && uscToDate == other.uscToDate;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(grossPay, grossPayToDate, incomeTaxToDate, uscToDate);
+        }
+    }
+}
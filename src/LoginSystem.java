@@ -41,11 +41,11 @@ public class LoginSystem {
 
         while (!loggedIn) {
 
-            if (today.getDayOfMonth() == 25) {
+            PaySlipGenerator generator = new PaySlipGenerator();
+            if (today.getDayOfMonth() == 25 && !generator.isPayrollComplete(today)) {
                 System.out.println("Sending payslips out...");
                 try {
-                    PaySlipGenerator generator = new PaySlipGenerator();
-                    generator.payslipGenerator();
+                    generator.payslipGenerator(today);
                 } catch (Exception e) {
                     System.err.println("Error while sending payslips: " + e.getMessage());
                 }
@@ -0,0 +1,143 @@
+public final class Money {
+    private Money() {
+    }
+
+    /**
+     * Converts an amount in euro to a whole number of cents, rounding half away from zero.
+     *
+     * @param amount the amount in euro
+     * @return the amount in cents
+     */
+    public static long fromAmount(double amount) {
+        return amount < 0 ? -Math.round(-amount * 100) : Math.round(amount * 100);
+    }
+
+    /**
+     * Converts an amount in cents to euro, for use in calculations such as tax rates that
+     * are not whole numbers of cents.
+     *
+     * @param cents the amount in cents
+     * @return the amount in euro
+     */
+    public static double toAmount(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * Divides an amount in cents, rounding the result half away from zero to the nearest cent.
+     *
+     * @param cents   the amount in cents
+     * @param divisor the positive number to divide by, e.g. 12 to get a monthly amount
+     * @return the divided amount in cents
+     */
+    public static long divide(long cents, long divisor) {
+        if (divisor <= 0) {
+            throw new IllegalArgumentException("Divisor must be positive, got: " + divisor);
+        }
+        long quotient = cents / divisor;
+        long remainder = Math.abs(cents % divisor);
+        if (remainder * 2 >= divisor) {
+            quotient += cents < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Parses an amount in euro such as "1234.56", "-12.5" or "40" into cents. Digits after
+     * the second decimal place are rounded half away from zero.
+     *
+     * @param text the amount as written in a CSV file
+     * @return the amount in cents
+     * @throws NumberFormatException if the text is not a decimal amount
+     */
+    public static long parse(String text) {
+        int length = text.length();
+        int start = 0;
+        while (start < length && text.charAt(start) == ' ') {
+            start++;
+        }
+        while (length > start && text.charAt(length - 1) == ' ') {
+            length--;
+        }
+
+        boolean negative = false;
+        int i = start;
+        if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+
+        long euro = 0;
+        int digits = 0;
+        while (i < length && text.charAt(i) != '.') {
+            euro = Math.addExact(Math.multiplyExact(euro, 10), digit(text, i));
+            digits++;
+            i++;
+        }
+
+        long cents = 0;
+        int decimals = 0;
+        boolean roundUp = false;
+        if (i < length) {
+            i++;
+            while (i < length) {
+                int digit = digit(text, i);
+                if (decimals < 2) {
+                    cents = cents * 10 + digit;
+                } else if (decimals == 2) {
+                    roundUp = digit >= 5;
+                }
+                decimals++;
+                digits++;
+                i++;
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Not an amount: \"" + text + "\"");
+        }
+
+        for (int d = decimals; d < 2; d++) {
+            cents *= 10;
+        }
+        long total = Math.addExact(Math.multiplyExact(euro, 100), cents + (roundUp ? 1 : 0));
+        return negative ? -total : total;
+    }
+
+    private static int digit(String text, int index) {
+        char c = text.charAt(index);
+        if (c < '0' || c > '9') {
+            throw new NumberFormatException("Not an amount: \"" + text + "\"");
+        }
+        return c - '0';
+    }
+
+    /**
+     * Formats an amount in cents as euro with exactly two decimal places, e.g. "1234.56".
+     *
+     * @param cents the amount in cents
+     * @return the formatted amount
+     */
+    public static String format(long cents) {
+        return appendTo(new StringBuilder(16), cents).toString();
+    }
+
+    /**
+     * Appends an amount in cents as euro with exactly two decimal places.
+     *
+     * @param out   the builder to append to
+     * @param cents the amount in cents
+     * @return the builder
+     */
+    public static StringBuilder appendTo(StringBuilder out, long cents) {
+        if (cents < 0) {
+            out.append('-');
+        }
+        long abs = Math.abs(cents);
+        long fraction = abs % 100;
+        out.append(abs / 100).append('.');
+        if (fraction < 10) {
+            out.append('0');
+        }
+        return out.append(fraction);
+    }
+}
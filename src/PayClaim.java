@@ -0,0 +1,59 @@
+import java.time.LocalDate;
+
+public class PayClaim {
+    private String username;
+    private LocalDate claimDate;
+    private double hoursWorked;
+    private double hourlyPay;
+
+    /**
+     * Constructs a pay claim submitted by a part-time employee.
+     *
+     * @param username the username of the employee who submitted the claim
+     * @param claimDate the date the claim was submitted
+     * @param hoursWorked the number of hours claimed
+     * @param hourlyPay the hourly rate the claim was submitted at
+     */
+    public PayClaim(String username, LocalDate claimDate, double hoursWorked, double hourlyPay) {
+        this.username = username;
+        this.claimDate = claimDate;
+        this.hoursWorked = hoursWorked;
+        this.hourlyPay = hourlyPay;
+    }
+
+    /**
+     * Gets the username of the employee who submitted the claim.
+     *
+     * @return the username
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Gets the date the claim was submitted.
+     *
+     * @return the claim date
+     */
+    public LocalDate getClaimDate() {
+        return claimDate;
+    }
+
+    /**
+     * Gets the number of hours claimed.
+     *
+     * @return the hours worked
+     */
+    public double getHoursWorked() {
+        return hoursWorked;
+    }
+
+    /**
+     * Gets the hourly rate of the claim.
+     *
+     * @return the hourly pay
+     */
+    public double getHourlyPay() {
+        return hourlyPay;
+    }
+}
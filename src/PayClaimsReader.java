@@ -1,6 +1,11 @@
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
 
 public class PayClaimsReader {
     private String filePath;
@@ -10,7 +15,7 @@ public class PayClaimsReader {
     }
 
     public boolean hasPayClaim(String employeeId) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
             reader.readLine();
             String line;
             while ((line = reader.readLine()) != null) {
@@ -25,4 +30,42 @@ public class PayClaimsReader {
         }
         return false;
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads the PayClaims.csv file once and keeps the latest claim submitted by each employee.
+     *
+     * <p>Rows with fewer than five fields or an unparseable date or amount are skipped.
+     * When an employee has several claims, the one with the latest date is kept.</p>
+     *
+     * @return a map of usernames to their latest pay claim
+     * @throws IOException if an error occurs while reading the file
+     */
+    public Map<String, PayClaim> readLatestClaims() throws IOException {
+        Map<String, PayClaim> latestClaims = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length < 5 || fields[0].trim().isEmpty()) {
+                    continue;
+                }
+
+                try {
+                    String username = fields[0].trim();
+                    LocalDate claimDate = LocalDate.parse(fields[1].trim());
+                    double hoursWorked = Double.parseDouble(fields[2].trim());
+                    double hourlyPay = Double.parseDouble(fields[3].trim());
+
+                    PayClaim latestClaim = latestClaims.get(username);
+                    if (latestClaim == null || claimDate.isAfter(latestClaim.getClaimDate())) {
+                        latestClaims.put(username, new PayClaim(username, claimDate, hoursWorked, hourlyPay));
+                    }
+                } catch (DateTimeParseException | NumberFormatException e) {
+                    System.err.println("Invalid line format in PayClaims.csv: " + line);
+                }
+            }
+        }
+        return latestClaims;
+    }
+}
@@ -0,0 +1,328 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+public class PaySlipArchive {
+    private static final int MAGIC = 0x50534131; // "PSA1"
+    // Uncompressed bytes per block: large enough to compress well, small enough to inflate for one lookup
+    private static final int BLOCK_SIZE = 1 << 16;
+    private static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES;
+
+    private static final Map<String, PaySlipArchive> archives = new HashMap<>();
+
+    private String filePath;
+    private long lastModified;
+    // The first employee ID, file offset, compressed length and uncompressed length of each block
+    private String[] firstIds;
+    private long[] offsets;
+    private int[] compressedLengths;
+    private int[] rawLengths;
+
+    private PaySlipArchive(String filePath, long lastModified) {
+        this.filePath = filePath;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Archives the partitions of a closed tax year from the command line.
+     *
+     * <p>Options are given as {@code name=value} pairs:</p>
+     * <ul>
+     *     <li>{@code partitions} - the partition directory (default payslips).</li>
+     *     <li>{@code year} - the tax year to archive, which must be over.</li>
+     * </ul>
+     *
+     * @param args the options, e.g. {@code partitions=payslips year=2023}
+     * @throws IOException if a partition cannot be read or its archive cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        String directory = "payslips";
+        int year = -1;
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected name=value but got: " + arg);
+            }
+            String name = arg.substring(0, separator).trim();
+            String value = arg.substring(separator + 1).trim();
+
+            switch (name) {
+                case "partitions" -> directory = value;
+                case "year" -> year = Integer.parseInt(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + name);
+            }
+        }
+        if (year < 0) {
+            throw new IllegalArgumentException("The year to archive must be given, e.g. year=2023");
+        }
+
+        int rows = PaySlipWriter.partitioned(directory).archive(year, LocalDate.now());
+        System.out.println("Archived " + rows + " payslips from " + year + ".");
+    }
+
+    /**
+     * Gets the path of the archive a payslip partition is compressed into, e.g.
+     * payslips/2023/12.archive for payslips/2023/12.csv.
+     *
+     * @param partitionFile The path to the partition.
+     * @return The path to its archive.
+     */
+    public static String archivePath(String partitionFile) {
+        return partitionFile.endsWith(".csv")
+                ? partitionFile.substring(0, partitionFile.length() - 4) + ".archive"
+                : partitionFile + ".archive";
+    }
+
+    /**
+     * Compresses a payslip partition into an archive next to it and deletes the partition
+     * and its index.
+     *
+     * <p>The rows are sorted by employee ID, keeping rows of the same employee in the order
+     * they were written, and packed into blocks of about 64 KB that are compressed separately
+     * with {@link Deflater}. A small block index at the end of the archive gives the first
+     * employee ID and position of every block, so reading one employee's payslip inflates a
+     * single block rather than the whole archive:</p>
+     * <pre>
+     * block 0 .. block n-1          deflated rows, each ending in a newline
+     * int blocks                    the block index, with for each block:
+     *   UTF firstId, long offset, int compressedLength, int rawLength
+     * long indexOffset, int magic   the trailer
+     * </pre>
+     *
+     * @param partitionFile The path to the partition, e.g. "payslips/2023/12.csv".
+     * @return The number of rows archived.
+     * @throws IOException If the partition cannot be read or the archive cannot be written.
+     */
+    public static int archive(String partitionFile) throws IOException {
+        List<String> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(partitionFile, StandardCharsets.UTF_8))) {
+            String line;
+
+            reader.readLine();
+
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    rows.add(line);
+                }
+            }
+        }
+        rows.sort(Comparator.comparing(PaySlipArchive::employeeIdOf));
+
+        Path target = Paths.get(archivePath(partitionFile));
+        Path temp = Paths.get(target + ".tmp");
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+
+        List<String> firstIds = new ArrayList<>();
+        List<long[]> blocks = new ArrayList<>();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp.toFile())))) {
+            byte[] block = new byte[BLOCK_SIZE];
+            byte[] compressed = new byte[BLOCK_SIZE];
+            int blockLength = 0;
+            long offset = 0;
+
+            for (int i = 0; i <= rows.size(); i++) {
+                byte[] row = i < rows.size() ? (rows.get(i) + "\n").getBytes(StandardCharsets.UTF_8) : null;
+                if (blockLength > 0 && (row == null || blockLength + row.length > BLOCK_SIZE)) {
+                    deflater.reset();
+                    deflater.setInput(block, 0, blockLength);
+                    deflater.finish();
+                    int compressedLength = 0;
+                    while (!deflater.finished()) {
+                        if (compressedLength == compressed.length) {
+                            compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                        }
+                        compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+                    }
+                    out.write(compressed, 0, compressedLength);
+                    blocks.add(new long[]{offset, compressedLength, blockLength});
+                    offset += compressedLength;
+                    blockLength = 0;
+                }
+                if (row == null) {
+                    break;
+                }
+
+                if (blockLength == 0) {
+                    firstIds.add(employeeIdOf(rows.get(i)));
+                }
+                if (row.length > block.length) {
+                    block = Arrays.copyOf(block, row.length);
+                }
+                System.arraycopy(row, 0, block, blockLength, row.length);
+                blockLength += row.length;
+            }
+
+            out.writeInt(blocks.size());
+            for (int i = 0; i < blocks.size(); i++) {
+                out.writeUTF(firstIds.get(i));
+                out.writeLong(blocks.get(i)[0]);
+                out.writeInt((int) blocks.get(i)[1]);
+                out.writeInt((int) blocks.get(i)[2]);
+            }
+            out.writeLong(offset);
+            out.writeInt(MAGIC);
+        } finally {
+            deflater.end();
+        }
+
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.delete(Paths.get(partitionFile));
+        Files.deleteIfExists(PaySlipIndex.indexPath(partitionFile));
+        return rows.size();
+    }
+
+    /**
+     * Returns the shared reader of an archive, loading its block index on first use. Like
+     * {@link TaxRules}, the block index is read again if the archive has been modified.
+     *
+     * @param filePath The path to the archive.
+     * @return The archive.
+     * @throws IOException If the archive cannot be read or is not a payslip archive.
+     */
+    public static synchronized PaySlipArchive getArchive(String filePath) throws IOException {
+        long lastModified = Files.getLastModifiedTime(Paths.get(filePath)).toMillis();
+        PaySlipArchive archive = archives.get(filePath);
+
+        if (archive == null || archive.lastModified != lastModified) {
+            archive = new PaySlipArchive(filePath, lastModified);
+            archive.loadIndex();
+            archives.put(filePath, archive);
+        }
+        return archive;
+    }
+
+    private void loadIndex() throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(filePath, "r")) {
+            if (file.length() < TRAILER_SIZE) {
+                throw new IOException("Not a payslip archive: " + filePath);
+            }
+            file.seek(file.length() - TRAILER_SIZE);
+            long indexOffset = file.readLong();
+            if (file.readInt() != MAGIC || indexOffset < 0 || indexOffset > file.length() - TRAILER_SIZE) {
+                throw new IOException("Not a payslip archive: " + filePath);
+            }
+
+            file.seek(indexOffset);
+            int blocks = file.readInt();
+            firstIds = new String[blocks];
+            offsets = new long[blocks];
+            compressedLengths = new int[blocks];
+            rawLengths = new int[blocks];
+            for (int i = 0; i < blocks; i++) {
+                firstIds[i] = file.readUTF();
+                offsets[i] = file.readLong();
+                compressedLengths[i] = file.readInt();
+                rawLengths[i] = file.readInt();
+            }
+        }
+    }
+
+    /**
+     * Finds an employee's payslips for a pay period. Only the blocks that can hold the
+     * employee's rows, usually one, are read and inflated.
+     *
+     * @param employeeId The employee's ID.
+     * @param period The pay period, as written in the payslip rows (MM/yyyy).
+     * @return The matching payslip rows in the order they were written, without their line endings.
+     * @throws IOException If the archive cannot be read.
+     */
+    public List<String> find(String employeeId, String period) throws IOException {
+        List<String> found = new ArrayList<>();
+
+        // Start from the last block that begins before the employee, as their rows may run on into later blocks
+        int block = Arrays.binarySearch(firstIds, employeeId);
+        if (block < 0) {
+            block = Math.max(0, -block - 2);
+        } else {
+            while (block > 0 && firstIds[block - 1].equals(employeeId)) {
+                block--;
+            }
+            block = Math.max(0, block - 1);
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(filePath, "r")) {
+            for (; block < firstIds.length && firstIds[block].compareTo(employeeId) <= 0; block++) {
+                for (String row : readBlock(file, block)) {
+                    String[] fields = row.split(",", 4);
+                    if (fields.length == 4 && fields[0].trim().equals(employeeId) && fields[2].trim().equals(period)) {
+                        found.add(row);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Passes every row of the archive to an action, in employee ID order. The blocks are
+     * read one after another, so this is the cheapest way to read a whole archived period.
+     *
+     * @param action The action to apply to each row, without its line ending.
+     * @throws IOException If the archive cannot be read.
+     */
+    public void forEachRow(Consumer<String> action) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(filePath, "r")) {
+            for (int block = 0; block < firstIds.length; block++) {
+                for (String row : readBlock(file, block)) {
+                    action.accept(row);
+                }
+            }
+        }
+    }
+
+    private String[] readBlock(RandomAccessFile file, int block) throws IOException {
+        byte[] compressed = new byte[compressedLengths[block]];
+        file.seek(offsets[block]);
+        file.readFully(compressed);
+
+        byte[] raw = new byte[rawLengths[block]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, raw.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != raw.length) {
+                throw new IOException("Corrupt block " + block + " in " + filePath);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block " + block + " in " + filePath, e);
+        } finally {
+            inflater.end();
+        }
+
+        String text = new String(raw, StandardCharsets.UTF_8);
+        return text.substring(0, text.length() - 1).split("\n", -1);
+    }
+
+    private static String employeeIdOf(String row) {
+        int comma = row.indexOf(',');
+        return (comma < 0 ? row : row.substring(0, comma)).trim();
+    }
+}
@@ -0,0 +1,287 @@
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+public class PaySlipBatchWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    // The lock files held by this process; a file lock cannot be tried twice in one process, as
+    // closing the second channel would release the first one's lock
+    private static final Set<Path> lockedFiles = new HashSet<>();
+
+    private Path target;
+    private Path staging;
+    private Path lockFile;
+    private FileChannel lockChannel;
+    private FileOutputStream output;
+    private BufferedWriter writer;
+    private PaySlipRowEncoder encoder = new PaySlipRowEncoder();
+    private int batchSize;
+    private int pendingRows;
+    private int rowsWritten;
+    private long targetLength;
+    private long flushedLength;
+    private boolean committed;
+
+    /**
+     * Opens a batch of payslip rows for the given payslip file.
+     *
+     * <p>The new rows are written to a staging file next to the payslip file, which stays open
+     * for the whole batch. Rows are buffered in memory and flushed to the staging file every
+     * {@code batchSize} rows. The payslip file itself is only appended to when the batch is
+     * committed, so a failed run leaves it untouched, and opening a batch costs the same
+     * however many payslips the file already holds.</p>
+     *
+     * <p>The batch holds an exclusive lock on a lock file next to the payslip file (e.g.
+     * PaySlips.csv.lock) until it is closed, so a second batch for the same file, from this
+     * process or another, fails to open rather than deleting or overwriting the first one's
+     * staging file.</p>
+     *
+     * @param filePath The path to the payslip file, e.g. "PaySlips.csv".
+     * @param batchSize The number of rows buffered between flushes.
+     * @throws IOException If another batch for the file is open, or the staging file cannot be created.
+     */
+    public PaySlipBatchWriter(String filePath, int batchSize) throws IOException {
+        this(filePath, batchSize, -1, -1);
+    }
+
+    /**
+     * Reopens the staging file of an interrupted batch so that it can be continued.
+     *
+     * <p>The staging file is cut back to {@code stagingLength}, the length recorded after its
+     * last complete flush, which drops any rows written after that point. The payslip file is
+     * cut back to {@code payslipFileLength}, its length before the batch was first opened,
+     * which drops any rows appended by a commit that did not finish.</p>
+     *
+     * @param filePath The path to the payslip file, e.g. "PaySlips.csv".
+     * @param batchSize The number of rows buffered between flushes.
+     * @param stagingLength The length of the staging file to continue from.
+     * @param payslipFileLength The length of the payslip file before the batch was opened.
+     * @return The reopened batch.
+     * @throws IOException If another batch for the file is open, or the staging file does not
+     *                     exist or cannot be opened.
+     */
+    public static PaySlipBatchWriter resume(String filePath, int batchSize, long stagingLength,
+                                            long payslipFileLength) throws IOException {
+        if (stagingLength < 0 || !Files.exists(stagingPath(filePath))) {
+            throw new IOException("No staging file to resume for " + filePath);
+        }
+        return new PaySlipBatchWriter(filePath, batchSize, stagingLength, payslipFileLength);
+    }
+
+    private PaySlipBatchWriter(String filePath, int batchSize, long resumeLength, long resumeTargetLength) throws IOException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1, got: " + batchSize);
+        }
+        this.target = Paths.get(filePath);
+        this.staging = stagingPath(filePath);
+        this.batchSize = batchSize;
+        lock(filePath);
+
+        try {
+            boolean fileExists = Files.exists(target);
+            if (resumeLength >= 0) {
+                try (FileChannel channel = FileChannel.open(staging, StandardOpenOption.WRITE)) {
+                    channel.truncate(resumeLength);
+                }
+                targetLength = resumeTargetLength;
+                truncateTarget();
+            } else {
+                targetLength = fileExists ? Files.size(target) : 0;
+                Files.deleteIfExists(staging);
+            }
+
+            output = new FileOutputStream(staging.toFile(), true);
+            writer = new BufferedWriter(new OutputStreamWriter(output), BUFFER_SIZE);
+            if (resumeLength < 0 && !fileExists) {
+                writer.write(PaySlipWriter.HEADER);
+            }
+            flush();
+        } catch (IOException | RuntimeException e) {
+            if (output != null) {
+                output.close();
+            }
+            unlock();
+            throw e;
+        }
+    }
+
+    private void lock(String filePath) throws IOException {
+        Path file = Paths.get(filePath + ".lock").toAbsolutePath().normalize();
+        synchronized (lockedFiles) {
+            if (!lockedFiles.add(file)) {
+                throw new IOException("Another payroll run is writing to " + filePath);
+            }
+        }
+        lockFile = file;
+        try {
+            lockChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock lock = lockChannel.tryLock();
+            if (lock == null) {
+                throw new IOException("Another payroll run is writing to " + filePath);
+            }
+        } catch (IOException | RuntimeException e) {
+            unlock();
+            throw e;
+        }
+    }
+
+    private void unlock() throws IOException {
+        try {
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+        } finally {
+            synchronized (lockedFiles) {
+                lockedFiles.remove(lockFile);
+            }
+        }
+    }
+
+    /**
+     * Gets the staging file used while a batch for the given payslip file is open.
+     *
+     * @param filePath The path to the payslip file.
+     * @return The path to its staging file.
+     */
+    public static Path stagingPath(String filePath) {
+        return Paths.get(filePath + ".tmp");
+    }
+
+    /**
+     * Adds a payslip record to the batch. The date field is formatted to MM/YYYY before writing.
+     *
+     * @param payslipData An array containing the payslip details in the following order:
+     *                    [id, name, date, jobTitle, scalePoint, grossPay, incomeTax, prsi, usc, unionFee, netPay].
+     * @throws IOException If an error occurs while writing to the staging file.
+     */
+    public void writePayslip(String[] payslipData) throws IOException {
+        if (committed) {
+            throw new IOException("Batch for " + target + " has already been committed.");
+        }
+        encoder.encode(payslipData);
+        writeRow();
+    }
+
+    /**
+     * Adds a calculated payslip to the batch. The row is encoded into a buffer that is
+     * reused for every row of the batch, so no strings are built for it.
+     *
+     * @param payslip The payslip to write.
+     * @throws IOException If an error occurs while writing to the staging file.
+     */
+    public void writePayslip(PaySlipRecord payslip) throws IOException {
+        if (committed) {
+            throw new IOException("Batch for " + target + " has already been committed.");
+        }
+        encoder.encode(payslip);
+        writeRow();
+    }
+
+    private void writeRow() throws IOException {
+        encoder.writeTo(writer);
+        rowsWritten++;
+
+        if (++pendingRows >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Flushes the buffered rows to the staging file and forces them to disk.
+     *
+     * @throws IOException If an error occurs while writing to the staging file.
+     */
+    public void flush() throws IOException {
+        writer.flush();
+        output.getChannel().force(false);
+        flushedLength = output.getChannel().size();
+        pendingRows = 0;
+    }
+
+    /**
+     * Gets the length of the staging file after the last flush. Everything up to this
+     * length is on disk and can be resumed from.
+     *
+     * @return The flushed length in bytes.
+     */
+    public long getFlushedLength() {
+        return flushedLength;
+    }
+
+    /**
+     * Commits the batch by appending the staging file to the payslip file, forcing it to disk
+     * and deleting the staging file. The new rows are then added to the payslip file's
+     * {@link PaySlipIndex}.
+     *
+     * <p>If the process stops part way through the append, the staging file is still there
+     * and the batch can be resumed, which cuts the payslip file back to its length before the
+     * batch and appends the rows again.</p>
+     *
+     * @throws IOException If the staging file cannot be read or the payslip file cannot be written.
+     */
+    public void commit() throws IOException {
+        if (committed) {
+            return;
+        }
+        writer.close();
+        try (FileChannel in = FileChannel.open(staging, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (out.size() != targetLength) {
+                throw new IOException("Payslip file " + target + " has changed since the batch was opened");
+            }
+            long size = in.size();
+            for (long position = 0; position < size; ) {
+                position += in.transferTo(position, size - position, out.position(targetLength + position));
+            }
+            out.force(false);
+        }
+        Files.delete(staging);
+        committed = true;
+        PaySlipIndex.update(target.toString());
+    }
+
+    private void truncateTarget() throws IOException {
+        if (Files.exists(target) && Files.size(target) > targetLength) {
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+                channel.truncate(targetLength);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of rows written to this batch.
+     *
+     * @return The number of rows written.
+     */
+    public int getRowsWritten() {
+        return rowsWritten;
+    }
+
+    /**
+     * Closes the batch. If it has not been committed, the payslip file is left as it was
+     * before the batch was opened and the staging file is kept so that the batch can be
+     * resumed with {@link #resume(String, int, long, long)}. The batch's lock is released.
+     *
+     * @throws IOException If the staging file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!committed) {
+                writer.close();
+            }
+        } finally {
+            unlock();
+        }
+    }
+}
@@ -1,14 +1,19 @@
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.InputMismatchException;
 import java.util.Scanner;
 
 public class PaySlipCalculator {
+    private static final String TAX_RULES_FILE = "TaxRules.csv";
+
     private FulltimeSalaryScalesReader salaryReader;
     private PaySlipWriter writer;
+    private TaxRules taxRules;
 
     /**
-     * Constructor to initialize Salary Reader and Payslip Writer.
+     * Constructor to initialize Salary Reader and Payslip Writer. Deductions are calculated
+     * with the tax rules in TaxRules.csv.
      *
      * @param salaryReader The reader for FulltimeSalaryScales.csv.
      * @param writer       The writer for PaySlips.csv.
@@ -18,6 +23,30 @@ public class PaySlipCalculator {
         this.writer = writer;
     }
 
+    /**
+     * Constructor to use already loaded tax rules, so that calculations do not check the
+     * tax rules file for changes on every call.
+     *
+     * @param salaryReader The reader for FulltimeSalaryScales.csv.
+     * @param writer       The writer for PaySlips.csv.
+     * @param taxRules     The tax rules used to calculate deductions.
+     */
+    public PaySlipCalculator(FulltimeSalaryScalesReader salaryReader, PaySlipWriter writer, TaxRules taxRules) {
+        this.salaryReader = salaryReader;
+        this.writer = writer;
+        this.taxRules = taxRules;
+    }
+
+    /**
+     * Gets the tax rules used to calculate deductions.
+     *
+     * @return The tax rules.
+     * @throws IOException If the tax rules file cannot be read.
+     */
+    public TaxRules getTaxRules() throws IOException {
+        return taxRules != null ? taxRules : TaxRules.getRules(TAX_RULES_FILE);
+    }
+
     /**
      * Calculates the payslip for a full-time employee based on their annual salary,
      * then writes the generated payslip data to a file.
@@ -37,35 +66,56 @@ public class PaySlipCalculator {
             throw new IOException("Employee with username " + username + " not found.");
         }
 
+        writer.writePayslip(calculatePayslip(employeeData, today));
+    }
+
+    /**
+     * Calculates the payslip for a full-time employee from their EmployeeInfo.csv record
+     * without writing it, looking at this month's pay in isolation.
+     *
+     * @param employeeData The employee's record as read from EmployeeInfo.csv.
+     * @param today The current date for payslip generation.
+     * @return The calculated payslip.
+     * @throws IOException If no salary is found for the employee's job title and scale point,
+     *                     or the tax rules file cannot be read.
+     */
+    public PaySlipRecord calculatePayslip(String[] employeeData, LocalDate today) throws IOException {
+        return calculatePayslip(employeeData, today, null);
+    }
+
+    /**
+     * Calculates the payslip for a full-time employee from their EmployeeInfo.csv record
+     * without writing it, on a cumulative basis from their totals for the tax year so far.
+     *
+     * <p>Amounts are kept in whole cents. Each deduction is rounded to the cent, and net pay
+     * is gross pay less the rounded deductions, so the amounts on a payslip always add up.
+     * Every employee on the same job title and scale point has the same gross pay, so the
+     * gross-to-net amounts are kept in the {@link GrossToNetCache} for the current salary
+     * scales and tax rules. Given year-to-date totals, income tax and USC are on the cumulative
+     * basis described in {@link GrossToNet#calculate(long, PayrollLedger.Entry, int, TaxRules)},
+     * from the employee's first payslip of the tax year on, and are shared by employees on the
+     * same grade with the same totals.</p>
+     *
+     * @param employeeData The employee's record as read from EmployeeInfo.csv.
+     * @param today The current date for payslip generation.
+     * @param yearToDate The employee's totals for the tax year before this payslip, or null if there are none.
+     * @return The calculated payslip.
+     * @throws IOException If no salary is found for the employee's job title and scale point,
+     *                     or the tax rules file cannot be read.
+     */
+    public PaySlipRecord calculatePayslip(String[] employeeData, LocalDate today, PayrollLedger.Entry yearToDate) throws IOException {
         String employeeId = employeeData[0].trim();
         String name = employeeData[2].trim();
         String jobTitle = employeeData[6].trim();
         String scalePoint = employeeData[7].trim();
-        double annualSalary = salaryReader.getSalary(jobTitle, String.valueOf(Integer.parseInt(scalePoint)));
-        double grossPay = annualSalary / 12;
-
-        double incomeTax = calculateIncomeTax(grossPay);
-        double prsi = calculatePRSI(grossPay);
-        double usc = calculateUSC(grossPay);
-        double unionFee = grossPay * 0.08;
-        double totalDeductions = incomeTax + prsi + usc + unionFee;
-        double netPay = grossPay - totalDeductions;
-
-        String[] payslipData = {
-                employeeId,
-                name,
-                today.toString(),
-                jobTitle,
-                scalePoint,
-                String.format("%.2f", grossPay),
-                String.format("%.2f", incomeTax),
-                String.format("%.2f", prsi),
-                String.format("%.2f", usc),
-                String.format("%.2f", unionFee),
-                String.format("%.2f", netPay)
-        };
-
-        writer.writePayslip(payslipData);
+        TaxRules rules = getTaxRules();
+        GrossToNetCache cache = GrossToNetCache.getCache(salaryReader.getTable(), rules);
+        GrossToNet amounts = yearToDate == null
+                ? cache.get(jobTitle, Integer.parseInt(scalePoint))
+                : cache.get(jobTitle, Integer.parseInt(scalePoint), yearToDate, today.getMonthValue());
+
+        return new PaySlipRecord(employeeId, name, today, jobTitle, scalePoint, amounts.getGrossPay(),
+                amounts.getIncomeTax(), amounts.getPRSI(), amounts.getUSC(), amounts.getUnionFee(), amounts.getNetPay());
     }
 
 
@@ -86,83 +136,59 @@ public class PaySlipCalculator {
 
 
     public void calculateAndWritePartTimePayslip(String employeeId, String name, double hoursWorked, double hourlyPay, LocalDate claimDate, LocalDate today) throws IOException {
-
-        double grossPay = hoursWorked * hourlyPay;
-        double incomeTax = calculateIncomeTax(grossPay);
-        double prsi = calculatePRSI(grossPay);
-        double usc = calculateUSC(grossPay);
-        double unionFee = grossPay * 0.08;
-        double totalDeductions = incomeTax + prsi + usc + unionFee;
-        double netPay = grossPay - totalDeductions;
-
-
-        String[] payslipData = {
-                employeeId,
-                name,
-                claimDate.toString(),
-                String.format("%.2f", hoursWorked),
-                String.format("%.2f", hourlyPay),
-                String.format("%.2f", grossPay),
-                String.format("%.2f", incomeTax),
-                String.format("%.2f", prsi),
-                String.format("%.2f", usc),
-                String.format("%.2f", unionFee),
-                String.format("%.2f", netPay)
-        };
-
-
-        writer.writePayslip(payslipData);
+        writer.writePayslip(calculatePartTimePayslip(employeeId, name, hoursWorked, hourlyPay, claimDate));
     }
 
-
-
-
-
-
-
-
-
     /**
-     * Calculate income tax (20% for first 42k, 40% for the rest).
+     * Calculates the payslip for a part-time employee based on hours worked and hourly pay
+     * without writing it, looking at this claim in isolation. Amounts are kept in whole
+     * cents, as for full-time payslips.
      *
-     * @param grossSalary The gross salary.
-     * @return The income tax amount.
+     * @param employeeId The unique ID of the employee.
+     * @param name The name of the employee.
+     * @param hoursWorked The total hours worked by the employee.
+     * @param hourlyPay The hourly pay rate for the employee.
+     * @param claimDate The date of the pay claim.
+     * @return The calculated payslip.
+     * @throws IOException If the tax rules file cannot be read.
      */
-    private double calculateIncomeTax(double grossSalary) {
-        if (grossSalary <= 42000) {
-            return grossSalary * 0.20;
-        } else {
-            return 42000 * 0.20 + (grossSalary - 42000) * 0.40;
-        }
+    public PaySlipRecord calculatePartTimePayslip(String employeeId, String name, double hoursWorked, double hourlyPay, LocalDate claimDate) throws IOException {
+        return calculatePartTimePayslip(employeeId, name, hoursWorked, hourlyPay, claimDate, null);
     }
 
     /**
-     * Calculate PRSI (4.1% of gross salary).
+     * Calculates the payslip for a part-time employee based on hours worked and hourly pay
+     * without writing it, on a cumulative basis from their totals for the tax year so far.
      *
-     * @param grossSalary The gross salary.
-     * @return The PRSI amount.
+     * @param employeeId The unique ID of the employee.
+     * @param name The name of the employee.
+     * @param hoursWorked The total hours worked by the employee.
+     * @param hourlyPay The hourly pay rate for the employee.
+     * @param claimDate The date of the pay claim.
+     * @param yearToDate The employee's totals for the tax year before this payslip, or null if there are none.
+     * @return The calculated payslip.
+     * @throws IOException If the tax rules file cannot be read.
      */
-    private double calculatePRSI(double grossSalary) {
-        return grossSalary * 0.041;
+    public PaySlipRecord calculatePartTimePayslip(String employeeId, String name, double hoursWorked, double hourlyPay,
+                                                  LocalDate claimDate, PayrollLedger.Entry yearToDate) throws IOException {
+        long hourlyPayCents = Money.fromAmount(hourlyPay);
+        long grossPay = Math.round(hoursWorked * hourlyPayCents);
+        GrossToNet amounts = yearToDate == null
+                ? GrossToNet.calculate(grossPay, getTaxRules())
+                : GrossToNet.calculate(grossPay, yearToDate, claimDate.getMonthValue(), getTaxRules());
+
+        return new PaySlipRecord(employeeId, name, claimDate, Money.fromAmount(hoursWorked), hourlyPayCents,
+                amounts.getGrossPay(), amounts.getIncomeTax(), amounts.getPRSI(), amounts.getUSC(),
+                amounts.getUnionFee(), amounts.getNetPay());
     }
 
-    /**
-     * Calculate USC based on income thresholds.
-     *
-     * @param grossSalary The gross salary.
-     * @return The USC amount.
-     */
-    private double calculateUSC(double grossSalary) {
-        if (grossSalary <= 12012) {
-            return grossSalary * 0.005;
-        } else if (grossSalary <= 25760) {
-            return 12012 * 0.005 + (grossSalary - 12012) * 0.02;
-        } else if (grossSalary <= 70044) {
-            return 12012 * 0.005 + (25760 - 12012) * 0.02 + (grossSalary - 25760) * 0.04;
-        } else {
-            return 12012 * 0.005 + (25760 - 12012) * 0.02 + (70044 - 25760) * 0.04 + (grossSalary - 70044) * 0.08;
-        }
-    }
+
+
+
+
+
+
+
 
     /**
      * Submits a pay claim for an employee based on hours worked and their hourly rate.
@@ -228,15 +254,17 @@ public class PaySlipCalculator {
         }
 
 
-        double totalPay = hoursWorked * hourlyRate;
+        long hourlyRateCents = Money.fromAmount(hourlyRate);
+        long totalPay = hoursWorked * hourlyRateCents;
 
 
-        System.out.printf("Pay Claim Summary:\nDate: %s\nHours Worked: %d\nHourly Rate: %.2f\nTotal Pay: %.2f\n",
-                today, hoursWorked, hourlyRate, totalPay);
+        System.out.printf("Pay Claim Summary:\nDate: %s\nHours Worked: %d\nHourly Rate: %s\nTotal Pay: %s\n",
+                today, hoursWorked, Money.format(hourlyRateCents), Money.format(totalPay));
 
 
-        try (BufferedWriter claimWriter = new BufferedWriter(new FileWriter("PayClaims.csv", true))) {
-            String record = String.format("%s,%s,%d,%.2f,%.2f,%d", username, today, hoursWorked, hourlyRate, totalPay, scalePoint);
+        try (BufferedWriter claimWriter = new BufferedWriter(new FileWriter("PayClaims.csv", StandardCharsets.UTF_8, true))) {
+            String record = String.format("%s,%s,%d,%s,%s,%d", username, today, hoursWorked,
+                    Money.format(hourlyRateCents), Money.format(totalPay), scalePoint);
             claimWriter.write(record);
             claimWriter.newLine();
             System.out.println("Pay claim submitted successfully.");
@@ -0,0 +1,274 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+public class PaySlipHistory {
+    static final String PART_TIME = "Part-Time";
+
+    private PaySlipWriter store;
+
+    /**
+     * Constructs a query service over the payslips of a payslip store.
+     *
+     * @param store The writer of the payslip store, which knows where each period's payslips are kept.
+     */
+    public PaySlipHistory(PaySlipWriter store) {
+        this.store = store;
+    }
+
+    /**
+     * Answers a payslip history query from the command line, printing the result as CSV.
+     *
+     * <p>Options are given as {@code name=value} pairs:</p>
+     * <ul>
+     *     <li>{@code query} - one of {@code employee} (an employee's payslips), {@code ytd} (an
+     *     employee's totals for the year up to {@code to}), {@code periods} (totals for each
+     *     period) or {@code titles} (totals for each job title).</li>
+     *     <li>{@code employee} - the employee ID, for the employee and ytd queries.</li>
+     *     <li>{@code from} and {@code to} - the first and last pay periods, as yyyy-MM
+     *     (default the current month).</li>
+     * </ul>
+     * <p>Payslips are read from PaySlips.csv, or from the partitions named by the
+     * {@code payroll.partitions} system property.</p>
+     *
+     * @param args the options, e.g. {@code query=titles from=2024-01 to=2024-12}
+     * @throws IOException if the payslips cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        String query = null;
+        String employeeId = null;
+        YearMonth from = YearMonth.now();
+        YearMonth to = from;
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected name=value but got: " + arg);
+            }
+            String name = arg.substring(0, separator).trim();
+            String value = arg.substring(separator + 1).trim();
+
+            switch (name) {
+                case "query" -> query = value;
+                case "employee" -> employeeId = value;
+                case "from" -> from = YearMonth.parse(value);
+                case "to" -> to = YearMonth.parse(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + name);
+            }
+        }
+
+        PaySlipHistory history = new PaySlipHistory(PaySlipWriter.getDefault());
+        if ("employee".equals(query)) {
+            System.out.print(PaySlipWriter.HEADER);
+            for (String row : history.findRows(require(employeeId), from, to)) {
+                System.out.println(row);
+            }
+        } else if ("ytd".equals(query)) {
+            System.out.println("id,payslips,grossPay,incomeTax,prsi,usc,unionFee,netPay");
+            System.out.println(employeeId + "," + history.getYearToDate(require(employeeId), to).toCsv());
+        } else if ("periods".equals(query)) {
+            System.out.println("period,payslips,grossPay,incomeTax,prsi,usc,unionFee,netPay");
+            history.getTotalsByPeriod(from, to).forEach((period, totals) -> System.out.println(period + "," + totals.toCsv()));
+        } else if ("titles".equals(query)) {
+            System.out.println("jobTitle,payslips,grossPay,incomeTax,prsi,usc,unionFee,netPay");
+            history.getTotalsByJobTitle(from, to).forEach((title, totals) -> System.out.println(title + "," + totals.toCsv()));
+        } else {
+            throw new IllegalArgumentException("Unknown query: " + query + ", expected employee, ytd, periods or titles");
+        }
+    }
+
+    private static String require(String employeeId) {
+        if (employeeId == null) {
+            throw new IllegalArgumentException("The employee must be given, e.g. employee=100000");
+        }
+        return employeeId;
+    }
+
+    /**
+     * Gets an employee's payslips for a range of pay periods.
+     *
+     * <p>Each period is looked up separately, through the {@link PaySlipIndex} of the file
+     * holding it or the {@link PaySlipArchive} it has been moved to, so the cost depends on
+     * the number of periods asked for rather than the size of the history.</p>
+     *
+     * @param employeeId The employee's ID.
+     * @param from The first pay period.
+     * @param to The last pay period, inclusive.
+     * @return The employee's payslips in period order.
+     * @throws IOException If a payslip file cannot be read.
+     */
+    public List<PaySlipRecord> getPayslips(String employeeId, YearMonth from, YearMonth to) throws IOException {
+        List<PaySlipRecord> payslips = new ArrayList<>();
+        for (String row : findRows(employeeId, from, to)) {
+            payslips.add(PaySlipRecord.parse(row));
+        }
+        return payslips;
+    }
+
+    private List<String> findRows(String employeeId, YearMonth from, YearMonth to) throws IOException {
+        checkRange(from, to);
+        List<String> rows = new ArrayList<>();
+
+        for (YearMonth period = from; !period.isAfter(to); period = period.plusMonths(1)) {
+            String periodText = String.format("%02d/%d", period.getMonthValue(), period.getYear());
+            String file = store.getFilePath(period.atDay(1));
+
+            if (Files.exists(Paths.get(file))) {
+                rows.addAll(PaySlipIndex.getIndex(file).find(employeeId, periodText));
+            } else if (store.isPartitioned() && Files.exists(Paths.get(PaySlipArchive.archivePath(file)))) {
+                rows.addAll(PaySlipArchive.getArchive(PaySlipArchive.archivePath(file)).find(employeeId, periodText));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Gets an employee's totals for a tax year, from January up to and including a pay
+     * period. Unlike the {@link PayrollLedger}, which only holds the totals as of the last
+     * payroll run, this can be asked for any point in any year.
+     *
+     * @param employeeId The employee's ID.
+     * @param through The last pay period to include.
+     * @return The employee's totals for the year so far.
+     * @throws IOException If a payslip file cannot be read.
+     */
+    public PaySlipTotals getYearToDate(String employeeId, YearMonth through) throws IOException {
+        PaySlipTotals totals = new PaySlipTotals();
+        for (PaySlipRecord payslip : getPayslips(employeeId, YearMonth.of(through.getYear(), 1), through)) {
+            totals.add(payslip);
+        }
+        return totals;
+    }
+
+    /**
+     * Totals every employee's payslips for each pay period in a range.
+     *
+     * @param from The first pay period.
+     * @param to The last pay period, inclusive.
+     * @return The totals of each period that has payslips, in period order.
+     * @throws IOException If a payslip file cannot be read.
+     */
+    public Map<YearMonth, PaySlipTotals> getTotalsByPeriod(YearMonth from, YearMonth to) throws IOException {
+        return new TreeMap<>(aggregate(from, to, payslip -> YearMonth.from(payslip.getDate())));
+    }
+
+    /**
+     * Totals every employee's payslips for each job title over a range of pay periods.
+     * Part-time payslips record hours rather than a job title and are totalled under
+     * "Part-Time".
+     *
+     * @param from The first pay period.
+     * @param to The last pay period, inclusive.
+     * @return The totals of each job title, in alphabetical order.
+     * @throws IOException If a payslip file cannot be read.
+     */
+    public Map<String, PaySlipTotals> getTotalsByJobTitle(YearMonth from, YearMonth to) throws IOException {
+        return new TreeMap<>(aggregate(from, to, payslip -> payslip.isFullTime() ? payslip.getJobTitle() : PART_TIME));
+    }
+
+    /**
+     * Streams the payslips of a range of periods into totals grouped by key.
+     *
+     * <p>No file is ever held in memory. Partitions are read in parallel with each other,
+     * and the rows of a single payslip file are split between threads by a parallel stream.
+     * Each thread keeps its own totals, which are only combined at the end. Rows that cannot
+     * be parsed are reported and skipped.</p>
+     */
+    private <K> Map<K, PaySlipTotals> aggregate(YearMonth from, YearMonth to, Function<PaySlipRecord, K> key) throws IOException {
+        checkRange(from, to);
+        try {
+            return sources(from, to).parallelStream()
+                    .map(source -> aggregate(source, from, to, key))
+                    .reduce(PaySlipHistory::merge)
+                    .orElseGet(HashMap::new);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private <K> Map<K, PaySlipTotals> aggregate(String source, YearMonth from, YearMonth to, Function<PaySlipRecord, K> key) {
+        try {
+            if (source.endsWith(".archive")) {
+                Map<K, PaySlipTotals> totals = new HashMap<>();
+                PaySlipArchive.getArchive(source).forEachRow(row -> accumulate(totals, row, source, from, to, key));
+                return totals;
+            }
+            try (Stream<String> rows = Files.lines(Paths.get(source), StandardCharsets.UTF_8)) {
+                return rows.parallel()
+                        .collect(HashMap::new, (totals, row) -> accumulate(totals, row, source, from, to, key), PaySlipHistory::merge);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <K> void accumulate(Map<K, PaySlipTotals> totals, String row, String source,
+                                       YearMonth from, YearMonth to, Function<PaySlipRecord, K> key) {
+        if (row.isEmpty() || row.startsWith("id,")) {
+            return;
+        }
+        PaySlipRecord payslip;
+        try {
+            payslip = PaySlipRecord.parse(row);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid line format in " + source + ": " + row);
+            return;
+        }
+
+        YearMonth period = YearMonth.from(payslip.getDate());
+        if (!period.isBefore(from) && !period.isAfter(to)) {
+            totals.computeIfAbsent(key.apply(payslip), k -> new PaySlipTotals()).add(payslip);
+        }
+    }
+
+    /**
+     * Adds the totals of one thread's map into another's. Both maps belong to the caller, so
+     * the totals in {@code into} can be updated in place.
+     */
+    private static <K> Map<K, PaySlipTotals> merge(Map<K, PaySlipTotals> into, Map<K, PaySlipTotals> other) {
+        other.forEach((key, totals) -> into.merge(key, totals, PaySlipTotals::add));
+        return into;
+    }
+
+    /**
+     * Lists the files holding the payslips of a range of periods: the single payslip file, or
+     * the partition or archive of each period that has payslips.
+     */
+    private List<String> sources(YearMonth from, YearMonth to) {
+        List<String> sources = new ArrayList<>();
+        if (!store.isPartitioned()) {
+            if (Files.exists(Paths.get(store.getFilePath()))) {
+                sources.add(store.getFilePath());
+            }
+            return sources;
+        }
+
+        for (YearMonth period = from; !period.isAfter(to); period = period.plusMonths(1)) {
+            String partition = store.getFilePath(period.atDay(1));
+            Path archive = Paths.get(PaySlipArchive.archivePath(partition));
+            if (Files.exists(Paths.get(partition))) {
+                sources.add(partition);
+            } else if (Files.exists(archive)) {
+                sources.add(archive.toString());
+            }
+        }
+        return sources;
+    }
+
+    private static void checkRange(YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("The range starts after it ends: " + from + " to " + to);
+        }
+    }
+}
@@ -0,0 +1,405 @@
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PaySlipIndex {
+    private static final String HEADER = "id,date,offset,length\n";
+    private static final int SCAN_BUFFER_SIZE = 1 << 16;
+    // Long enough for the last line of an index file
+    private static final int TAIL_SIZE = 256;
+
+    private static final Map<String, PaySlipIndex> indexes = new HashMap<>();
+
+    private Path payslipPath;
+    private Path indexPath;
+    // Offset and length pairs of the rows of each employee and MM/yyyy period, in file order
+    private Map<String, long[]> rows = new HashMap<>();
+    private long indexLength;
+    private long coveredLength;
+    private String lastKey;
+    private long lastOffset;
+    private int lastLength;
+
+    private PaySlipIndex(String payslipFile) {
+        this.payslipPath = Paths.get(payslipFile);
+        this.indexPath = indexPath(payslipFile);
+    }
+
+    /**
+     * Returns the shared index of a payslip file, loading it on first use.
+     *
+     * <p>The index is kept in a sidecar file next to the payslip file, with one
+     * {@code <id>,<MM/yyyy>,<offset>,<length>} line per payslip row giving the byte offset and
+     * length of the row. Like {@link TaxRules}, the index is kept in memory once loaded. Every
+     * lookup first reads any lines appended to the index file since, and indexes any payslip
+     * rows appended since the index was last brought up to date. If the index file is missing,
+     * or no longer matches the payslip file, it is rebuilt from the payslip file.</p>
+     *
+     * @param payslipFile The path to the payslip file, e.g. "PaySlips.csv".
+     * @return The index of the payslip file.
+     */
+    public static synchronized PaySlipIndex getIndex(String payslipFile) {
+        return indexes.computeIfAbsent(payslipFile, PaySlipIndex::new);
+    }
+
+    /**
+     * Gets the path of the index file kept for a payslip file.
+     *
+     * @param payslipFile The path to the payslip file.
+     * @return The path to its index file.
+     */
+    public static Path indexPath(String payslipFile) {
+        return Paths.get(payslipFile + ".idx");
+    }
+
+    /**
+     * Finds an employee's payslips for a pay period. Each row is read directly from its
+     * offset in the payslip file, so the cost of a lookup does not grow with the number of
+     * payslips in the file.
+     *
+     * @param employeeId The employee's ID.
+     * @param period The pay period, as written in the payslip file (MM/yyyy).
+     * @return The matching payslip rows in the order they were written, without their line endings.
+     * @throws FileNotFoundException If the payslip file does not exist.
+     * @throws IOException If the payslip or index file cannot be read.
+     */
+    public synchronized List<String> find(String employeeId, String period) throws IOException {
+        if (!Files.exists(payslipPath)) {
+            throw new FileNotFoundException("Payslip file not found: " + payslipPath);
+        }
+        refresh();
+        String key = employeeId + "," + period;
+        List<String> found = read(key);
+        if (found == null) {
+            // A row has moved since it was indexed, so the payslip file has been rewritten
+            rebuild();
+            found = read(key);
+        }
+        return found == null ? new ArrayList<>() : found;
+    }
+
+    private List<String> read(String key) throws IOException {
+        List<String> found = new ArrayList<>();
+        long[] positions = rows.get(key);
+        if (positions == null) {
+            return found;
+        }
+
+        try (FileChannel channel = FileChannel.open(payslipPath, StandardOpenOption.READ)) {
+            for (int i = 0; i < positions.length; i += 2) {
+                String row = readRow(channel, positions[i], (int) positions[i + 1], StandardCharsets.UTF_8);
+                if (row == null || !key.equals(keyOf(row))) {
+                    return null;
+                }
+                found.add(row);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Brings the in-memory index up to date with the index file and the payslip file.
+     */
+    private void refresh() throws IOException {
+        long payslipLength = Files.exists(payslipPath) ? Files.size(payslipPath) : 0;
+        long fileLength = Files.exists(indexPath) ? Files.size(indexPath) : 0;
+
+        if (fileLength == 0 || fileLength < indexLength) {
+            rebuild();
+            return;
+        }
+        if (fileLength > indexLength && !loadTail()) {
+            rebuild();
+            return;
+        }
+        if (payslipLength < coveredLength || !lastRowMatches()) {
+            rebuild();
+            return;
+        }
+        if (payslipLength > coveredLength) {
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(indexPath.toFile(), StandardCharsets.UTF_8, true))) {
+                coveredLength = scan(payslipPath, coveredLength, payslipLength, (employeeId, period, offset, length) -> {
+                    add(employeeId + "," + period, offset, length);
+                    writeEntry(writer, employeeId, period, offset, length);
+                });
+            }
+            indexLength = Files.size(indexPath);
+        }
+    }
+
+    /**
+     * Reads the lines appended to the index file since it was last read. Returns false if
+     * they do not continue on from the rows already indexed.
+     */
+    private boolean loadTail() throws IOException {
+        byte[] tail;
+        try (RandomAccessFile file = new RandomAccessFile(indexPath.toFile(), "r")) {
+            tail = new byte[(int) (file.length() - indexLength)];
+            file.seek(indexLength);
+            file.readFully(tail);
+        }
+
+        int start = 0;
+        for (int i = 0; i < tail.length; i++) {
+            if (tail[i] != '\n') {
+                continue;
+            }
+            String line = new String(tail, start, i - start, StandardCharsets.ISO_8859_1);
+            boolean first = indexLength == 0 && start == 0;
+            start = i + 1;
+
+            if (first) {
+                if (!line.equals(HEADER.trim())) {
+                    return false;
+                }
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields.length != 4) {
+                return false;
+            }
+            try {
+                long offset = Long.parseLong(fields[2]);
+                int length = Integer.parseInt(fields[3]);
+                // Rows are indexed in file order, so an entry can never start before the previous one ended
+                if (offset < coveredLength) {
+                    return false;
+                }
+                add(fields[0] + "," + fields[1], offset, length);
+                coveredLength = offset + length;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        // A line without its newline is still being written and is read next time
+        indexLength += start;
+        return true;
+    }
+
+    /**
+     * Checks that the last indexed row is still where the index says it is. If the payslip
+     * file has been rewritten rather than appended to, it will almost always have moved.
+     */
+    private boolean lastRowMatches() throws IOException {
+        if (lastKey == null) {
+            return true;
+        }
+        try (FileChannel channel = FileChannel.open(payslipPath, StandardOpenOption.READ)) {
+            String row = readRow(channel, lastOffset, lastLength, StandardCharsets.ISO_8859_1);
+            return row != null && lastKey.equals(keyOf(row));
+        }
+    }
+
+    /**
+     * Rebuilds the index file from the whole payslip file, replacing the previous file.
+     */
+    private void rebuild() throws IOException {
+        rows.clear();
+        lastKey = null;
+        coveredLength = 0;
+
+        Path temp = Paths.get(indexPath + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(temp.toFile(), StandardCharsets.UTF_8))) {
+            writer.write(HEADER);
+            if (Files.exists(payslipPath)) {
+                coveredLength = scan(payslipPath, 0, Files.size(payslipPath), (employeeId, period, offset, length) -> {
+                    add(employeeId + "," + period, offset, length);
+                    writeEntry(writer, employeeId, period, offset, length);
+                });
+            }
+        }
+        Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        indexLength = Files.size(indexPath);
+    }
+
+    private void add(String key, long offset, int length) {
+        long[] positions = rows.get(key);
+        if (positions == null) {
+            positions = new long[]{offset, length};
+        } else {
+            positions = Arrays.copyOf(positions, positions.length + 2);
+            positions[positions.length - 2] = offset;
+            positions[positions.length - 1] = length;
+        }
+        rows.put(key, positions);
+        lastKey = key;
+        lastOffset = offset;
+        lastLength = length;
+    }
+
+    /**
+     * Indexes the payslip rows appended to a payslip file since its index file was last
+     * updated. Called after rows are appended, so that lookups find them without scanning.
+     *
+     * <p>Only the new rows are read. If there is no index file yet nothing is done, as the
+     * index is built in full on the first lookup. Failures are reported rather than thrown:
+     * the payslips have already been written, and a stale index is rebuilt when next used.</p>
+     *
+     * @param payslipFile The path to the payslip file.
+     */
+    public static void update(String payslipFile) {
+        Path payslipPath = Paths.get(payslipFile);
+        Path indexPath = indexPath(payslipFile);
+
+        try {
+            if (!Files.exists(indexPath)) {
+                return;
+            }
+            long coveredLength = lastCoveredLength(indexPath);
+            long payslipLength = Files.exists(payslipPath) ? Files.size(payslipPath) : 0;
+            if (coveredLength < 0 || coveredLength > payslipLength) {
+                Files.delete(indexPath);
+                return;
+            }
+            if (coveredLength < payslipLength) {
+                try (BufferedWriter writer = new BufferedWriter(new FileWriter(indexPath.toFile(), StandardCharsets.UTF_8, true))) {
+                    scan(payslipPath, coveredLength, payslipLength, (employeeId, period, offset, length) ->
+                            writeEntry(writer, employeeId, period, offset, length));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not update the payslip index " + indexPath + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(indexPath);
+            } catch (IOException ignored) {
+                // The index is checked against the payslip file before it is used
+            }
+        }
+    }
+
+    /**
+     * Reads the end of the last row covered by an index file from its last line, without
+     * reading the rest of the file. Returns 0 for an index with no rows and -1 if the last
+     * line cannot be read.
+     */
+    private static long lastCoveredLength(Path indexPath) throws IOException {
+        byte[] tail;
+        try (RandomAccessFile file = new RandomAccessFile(indexPath.toFile(), "r")) {
+            long start = Math.max(0, file.length() - TAIL_SIZE);
+            tail = new byte[(int) (file.length() - start)];
+            file.seek(start);
+            file.readFully(tail);
+        }
+
+        int end = tail.length;
+        if (end == 0 || tail[end - 1] != '\n') {
+            return -1;
+        }
+        int start = end - 1;
+        while (start > 0 && tail[start - 1] != '\n') {
+            start--;
+        }
+        String line = new String(tail, start, end - 1 - start, StandardCharsets.ISO_8859_1);
+        if (line.equals(HEADER.trim())) {
+            return 0;
+        }
+
+        String[] fields = line.split(",");
+        try {
+            return fields.length == 4 ? Long.parseLong(fields[2]) + Long.parseLong(fields[3]) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void writeEntry(BufferedWriter writer, String employeeId, String period, long offset, int length)
+            throws IOException {
+        writer.write(employeeId);
+        writer.write(',');
+        writer.write(period);
+        writer.write(',');
+        writer.write(Long.toString(offset));
+        writer.write(',');
+        writer.write(Integer.toString(length));
+        writer.write('\n');
+    }
+
+    private static String readRow(FileChannel channel, long offset, int length, Charset charset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                return null;
+            }
+        }
+        String row = new String(buffer.array(), 0, length, charset);
+        return row.endsWith("\n") ? row.substring(0, row.length() - 1) : null;
+    }
+
+    private static String keyOf(String row) {
+        String[] fields = row.split(",", 4);
+        return fields.length < 4 ? null : fields[0].trim() + "," + fields[2].trim();
+    }
+
+    /**
+     * Receives each complete row found by {@link #scan}.
+     */
+    private interface RowVisitor {
+        void visit(String employeeId, String period, long offset, int length) throws IOException;
+    }
+
+    /**
+     * Scans the rows of a payslip file between two offsets, picking out the ID and period of
+     * each row byte by byte. The header is skipped when scanning from the start of the file.
+     * Returns the offset just after the last complete row, which is where the next scan starts.
+     */
+    private static long scan(Path payslipPath, long from, long to, RowVisitor visitor) throws IOException {
+        StringBuilder employeeId = new StringBuilder();
+        StringBuilder period = new StringBuilder();
+        int field = 0;
+        long rowStart = from;
+        boolean header = from == 0;
+
+        try (FileChannel channel = FileChannel.open(payslipPath, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+            long position = from;
+            while (position < to) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), to - position));
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer.get(i);
+                    if (b == '\n') {
+                        long rowEnd = position + i + 1;
+                        if (!header && field >= 3) {
+                            visitor.visit(employeeId.toString().trim(), period.toString().trim(),
+                                    rowStart, (int) (rowEnd - rowStart));
+                        }
+                        header = false;
+                        rowStart = rowEnd;
+                        field = 0;
+                        employeeId.setLength(0);
+                        period.setLength(0);
+                    } else if (b == ',') {
+                        field++;
+                    } else if (field == 0) {
+                        employeeId.append((char) b);
+                    } else if (field == 2 && b != '\r') {
+                        period.append((char) b);
+                    }
+                }
+                position += read;
+            }
+        }
+        return rowStart;
+    }
+}
@@ -0,0 +1,284 @@
+import java.time.LocalDate;
+
+public class PaySlipRecord {
+    private String employeeId;
+    private String name;
+    private LocalDate date;
+    private boolean fullTime;
+    private String jobTitle;
+    private String scalePoint;
+    private long hoursWorked;
+    private long hourlyPay;
+    private long grossPay;
+    private long incomeTax;
+    private long prsi;
+    private long usc;
+    private long unionFee;
+    private long netPay;
+
+    /**
+     * Constructs the payslip of a full-time employee, paid from the salary scales.
+     *
+     * @param employeeId the employee's ID
+     * @param name the employee's name
+     * @param date the date of the payroll run
+     * @param jobTitle the employee's job title
+     * @param scalePoint the employee's scale point, as written in EmployeeInfo.csv
+     * @param grossPay the gross pay, in cents
+     * @param incomeTax the income tax, in cents
+     * @param prsi the PRSI, in cents
+     * @param usc the USC, in cents
+     * @param unionFee the union fee, in cents
+     * @param netPay the net pay, in cents
+     */
+    public PaySlipRecord(String employeeId, String name, LocalDate date, String jobTitle, String scalePoint,
+                         long grossPay, long incomeTax, long prsi, long usc, long unionFee, long netPay) {
+        this(employeeId, name, date, grossPay, incomeTax, prsi, usc, unionFee, netPay);
+        this.fullTime = true;
+        this.jobTitle = jobTitle;
+        this.scalePoint = scalePoint;
+    }
+
+    /**
+     * Constructs the payslip of a part-time employee, paid from a pay claim.
+     *
+     * @param employeeId the employee's ID
+     * @param name the employee's name
+     * @param date the date of the pay claim
+     * @param hoursWorked the hours claimed, in hundredths of an hour
+     * @param hourlyPay the hourly rate, in cents
+     * @param grossPay the gross pay, in cents
+     * @param incomeTax the income tax, in cents
+     * @param prsi the PRSI, in cents
+     * @param usc the USC, in cents
+     * @param unionFee the union fee, in cents
+     * @param netPay the net pay, in cents
+     */
+    public PaySlipRecord(String employeeId, String name, LocalDate date, long hoursWorked, long hourlyPay,
+                         long grossPay, long incomeTax, long prsi, long usc, long unionFee, long netPay) {
+        this(employeeId, name, date, grossPay, incomeTax, prsi, usc, unionFee, netPay);
+        this.hoursWorked = hoursWorked;
+        this.hourlyPay = hourlyPay;
+    }
+
+    private PaySlipRecord(String employeeId, String name, LocalDate date,
+                          long grossPay, long incomeTax, long prsi, long usc, long unionFee, long netPay) {
+        this.employeeId = employeeId;
+        this.name = name;
+        this.date = date;
+        this.grossPay = grossPay;
+        this.incomeTax = incomeTax;
+        this.prsi = prsi;
+        this.usc = usc;
+        this.unionFee = unionFee;
+        this.netPay = netPay;
+    }
+
+    /**
+     * Parses a row of a payslip file. Only the MM/yyyy period of the payslip is stored, so the
+     * date of the parsed payslip is the first day of that month. A row whose fourth column is
+     * an amount rather than a job title is read as a part-time payslip.
+     *
+     * @param row the row, without its line ending
+     * @return the payslip
+     * @throws IllegalArgumentException if the row is not a valid payslip row
+     */
+    public static PaySlipRecord parse(String row) {
+        String[] fields = row.split(",");
+        if (fields.length != 11) {
+            throw new IllegalArgumentException("Invalid payslip row: " + row);
+        }
+
+        try {
+            String period = fields[2].trim();
+            if (period.length() != 7 || period.charAt(2) != '/') {
+                throw new IllegalArgumentException("Invalid pay period: " + period);
+            }
+            LocalDate date = LocalDate.of(Integer.parseInt(period.substring(3)), Integer.parseInt(period.substring(0, 2)), 1);
+            long grossPay = Money.parse(fields[5]);
+            long incomeTax = Money.parse(fields[6]);
+            long prsi = Money.parse(fields[7]);
+            long usc = Money.parse(fields[8]);
+            long unionFee = Money.parse(fields[9]);
+            long netPay = Money.parse(fields[10]);
+
+            long hoursWorked;
+            try {
+                hoursWorked = Money.parse(fields[3]);
+            } catch (NumberFormatException e) {
+                return new PaySlipRecord(fields[0].trim(), fields[1].trim(), date, fields[3].trim(), fields[4].trim(),
+                        grossPay, incomeTax, prsi, usc, unionFee, netPay);
+            }
+            return new PaySlipRecord(fields[0].trim(), fields[1].trim(), date, hoursWorked, Money.parse(fields[4]),
+                    grossPay, incomeTax, prsi, usc, unionFee, netPay);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid payslip row: " + row, e);
+        }
+    }
+
+    /**
+     * Returns a copy of this payslip for another pay period, with the same amounts.
+     *
+     * @param name the employee's current name
+     * @param date the date of the new payroll run
+     * @return the restamped payslip
+     */
+    public PaySlipRecord withPeriod(String name, LocalDate date) {
+        PaySlipRecord copy = new PaySlipRecord(employeeId, name, date, grossPay, incomeTax, prsi, usc, unionFee, netPay);
+        copy.fullTime = fullTime;
+        copy.jobTitle = jobTitle;
+        copy.scalePoint = scalePoint;
+        copy.hoursWorked = hoursWorked;
+        copy.hourlyPay = hourlyPay;
+        return copy;
+    }
+
+    /**
+     * Gets the ID of the employee paid.
+     *
+     * @return the employee ID
+     */
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    /**
+     * Gets the employee's name.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the date of the payroll run, or of the pay claim for a part-time payslip.
+     *
+     * @return the payslip date
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * Checks if the payslip was calculated from the salary scales rather than a pay claim.
+     * The fourth and fifth columns of a full-time payslip hold the job title and scale point;
+     * those of a part-time payslip hold the hours worked and hourly rate.
+     *
+     * @return true for a full-time payslip, false for a part-time payslip
+     */
+    public boolean isFullTime() {
+        return fullTime;
+    }
+
+    /**
+     * Gets the job title of a full-time payslip.
+     *
+     * @return the job title, or null for a part-time payslip
+     */
+    public String getJobTitle() {
+        return jobTitle;
+    }
+
+    /**
+     * Gets the scale point of a full-time payslip.
+     *
+     * @return the scale point, or null for a part-time payslip
+     */
+    public String getScalePoint() {
+        return scalePoint;
+    }
+
+    /**
+     * Gets the hours claimed on a part-time payslip.
+     *
+     * @return the hours worked, in hundredths of an hour
+     */
+    public long getHoursWorked() {
+        return hoursWorked;
+    }
+
+    /**
+     * Gets the hourly rate of a part-time payslip.
+     *
+     * @return the hourly rate, in cents
+     */
+    public long getHourlyPay() {
+        return hourlyPay;
+    }
+
+    /**
+     * Gets the gross pay.
+     *
+     * @return the gross pay, in cents
+     */
+    public long getGrossPay() {
+        return grossPay;
+    }
+
+    /**
+     * Gets the income tax deducted.
+     *
+     * @return the income tax, in cents
+     */
+    public long getIncomeTax() {
+        return incomeTax;
+    }
+
+    /**
+     * Gets the PRSI deducted.
+     *
+     * @return the PRSI, in cents
+     */
+    public long getPRSI() {
+        return prsi;
+    }
+
+    /**
+     * Gets the USC deducted.
+     *
+     * @return the USC, in cents
+     */
+    public long getUSC() {
+        return usc;
+    }
+
+    /**
+     * Gets the union fee deducted.
+     *
+     * @return the union fee, in cents
+     */
+    public long getUnionFee() {
+        return unionFee;
+    }
+
+    /**
+     * Gets the net pay: the gross pay less all deductions.
+     *
+     * @return the net pay, in cents
+     */
+    public long getNetPay() {
+        return netPay;
+    }
+
+    /**
+     * Converts the payslip to the array form accepted by {@link PaySlipWriter#writePayslip(String[])}.
+     *
+     * @return the payslip details, with the date in ISO format
+     */
+    public String[] toArray() {
+        return new String[]{
+                employeeId,
+                name,
+                date.toString(),
+                fullTime ? jobTitle : Money.format(hoursWorked),
+                fullTime ? scalePoint : Money.format(hourlyPay),
+                Money.format(grossPay),
+                Money.format(incomeTax),
+                Money.format(prsi),
+                Money.format(usc),
+                Money.format(unionFee),
+                Money.format(netPay)
+        };
+    }
+}
@@ -0,0 +1,186 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+public class PaySlipRowEncoder {
+    private char[] buffer = new char[256];
+    private int length;
+
+    /**
+     * Encodes a payslip as a PaySlips.csv row, replacing the previous row in the buffer.
+     *
+     * <p>The amounts and the MM/yyyy period are written digit by digit into a buffer that is
+     * reused from row to row, so encoding a row allocates nothing once the buffer has grown
+     * to fit the longest row.</p>
+     *
+     * @param payslip the payslip to encode
+     */
+    public void encode(PaySlipRecord payslip) {
+        length = 0;
+        appendText(payslip.getEmployeeId());
+        append(',');
+        appendText(payslip.getName());
+        append(',');
+        appendPeriod(payslip.getDate().getMonthValue(), payslip.getDate().getYear());
+        append(',');
+        if (payslip.isFullTime()) {
+            appendText(payslip.getJobTitle());
+            append(',');
+            appendText(payslip.getScalePoint());
+        } else {
+            appendCents(payslip.getHoursWorked());
+            append(',');
+            appendCents(payslip.getHourlyPay());
+        }
+        append(',');
+        appendCents(payslip.getGrossPay());
+        append(',');
+        appendCents(payslip.getIncomeTax());
+        append(',');
+        appendCents(payslip.getPRSI());
+        append(',');
+        appendCents(payslip.getUSC());
+        append(',');
+        appendCents(payslip.getUnionFee());
+        append(',');
+        appendCents(payslip.getNetPay());
+        append('\n');
+    }
+
+    /**
+     * Encodes a payslip given as text fields, converting the ISO date field to MM/yyyy.
+     *
+     * @param payslipData the payslip details, in the order accepted by {@link PaySlipWriter#writePayslip(String[])}
+     * @throws java.time.format.DateTimeParseException if the date field is not an ISO date
+     */
+    public void encode(String[] payslipData) {
+        length = 0;
+        for (int i = 0; i < payslipData.length; i++) {
+            if (i > 0) {
+                append(',');
+            }
+            if (i == 2) {
+                appendPeriod(payslipData[2]);
+            } else {
+                appendText(payslipData[i]);
+            }
+        }
+        append('\n');
+    }
+
+    /**
+     * Writes the encoded row to a writer.
+     *
+     * @param out the writer to write to
+     * @throws IOException if the writer fails
+     */
+    public void writeTo(Writer out) throws IOException {
+        out.write(buffer, 0, length);
+    }
+
+    /**
+     * Gets the length of the encoded row, including its newline.
+     *
+     * @return the number of characters in the row
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns the encoded row as a string.
+     *
+     * @return the CSV row, terminated by a newline
+     */
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+
+    private void append(char c) {
+        ensureCapacity(1);
+        buffer[length++] = c;
+    }
+
+    private void appendText(String text) {
+        int textLength = text.length();
+        ensureCapacity(textLength);
+        text.getChars(0, textLength, buffer, length);
+        length += textLength;
+    }
+
+    private void appendPeriod(int month, int year) {
+        appendTwoDigits(month);
+        append('/');
+        appendLong(year);
+    }
+
+    private void appendPeriod(String isoDate) {
+        // Fast path for yyyy-MM-dd; anything else goes through LocalDate, which rejects invalid dates
+        if (isoDate.length() == 10 && isoDate.charAt(4) == '-' && isoDate.charAt(7) == '-'
+                && isDigits(isoDate, 0, 4) && isDigits(isoDate, 5, 7) && isDigits(isoDate, 8, 10)) {
+            int month = (isoDate.charAt(5) - '0') * 10 + (isoDate.charAt(6) - '0');
+            if (month >= 1 && month <= 12) {
+                ensureCapacity(7);
+                buffer[length++] = isoDate.charAt(5);
+                buffer[length++] = isoDate.charAt(6);
+                buffer[length++] = '/';
+                isoDate.getChars(0, 4, buffer, length);
+                length += 4;
+                return;
+            }
+        }
+        LocalDate date = LocalDate.parse(isoDate);
+        appendPeriod(date.getMonthValue(), date.getYear());
+    }
+
+    private static boolean isDigits(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void appendTwoDigits(int value) {
+        ensureCapacity(2);
+        buffer[length++] = (char) ('0' + value / 10);
+        buffer[length++] = (char) ('0' + value % 10);
+    }
+
+    private void appendCents(long cents) {
+        if (cents < 0) {
+            append('-');
+            cents = -cents;
+        }
+        appendLong(cents / 100);
+        append('.');
+        appendTwoDigits((int) (cents % 100));
+    }
+
+    private void appendLong(long value) {
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+    }
+}
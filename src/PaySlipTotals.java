@@ -0,0 +1,118 @@
+public class PaySlipTotals {
+    private int payslips;
+    private long grossPay;
+    private long incomeTax;
+    private long prsi;
+    private long usc;
+    private long unionFee;
+    private long netPay;
+
+    /**
+     * Adds a payslip to the totals.
+     *
+     * @param payslip the payslip to add
+     */
+    public void add(PaySlipRecord payslip) {
+        payslips++;
+        grossPay += payslip.getGrossPay();
+        incomeTax += payslip.getIncomeTax();
+        prsi += payslip.getPRSI();
+        usc += payslip.getUSC();
+        unionFee += payslip.getUnionFee();
+        netPay += payslip.getNetPay();
+    }
+
+    /**
+     * Adds another set of totals to these, e.g. when combining the totals of two partitions.
+     *
+     * @param other the totals to add
+     * @return these totals
+     */
+    public PaySlipTotals add(PaySlipTotals other) {
+        payslips += other.payslips;
+        grossPay += other.grossPay;
+        incomeTax += other.incomeTax;
+        prsi += other.prsi;
+        usc += other.usc;
+        unionFee += other.unionFee;
+        netPay += other.netPay;
+        return this;
+    }
+
+    /**
+     * Gets the number of payslips added.
+     *
+     * @return the number of payslips
+     */
+    public int getPayslips() {
+        return payslips;
+    }
+
+    /**
+     * Gets the total gross pay.
+     *
+     * @return the gross pay, in cents
+     */
+    public long getGrossPay() {
+        return grossPay;
+    }
+
+    /**
+     * Gets the total income tax deducted.
+     *
+     * @return the income tax, in cents
+     */
+    public long getIncomeTax() {
+        return incomeTax;
+    }
+
+    /**
+     * Gets the total PRSI deducted.
+     *
+     * @return the PRSI, in cents
+     */
+    public long getPRSI() {
+        return prsi;
+    }
+
+    /**
+     * Gets the total USC deducted.
+     *
+     * @return the USC, in cents
+     */
+    public long getUSC() {
+        return usc;
+    }
+
+    /**
+     * Gets the total union fee deducted.
+     *
+     * @return the union fee, in cents
+     */
+    public long getUnionFee() {
+        return unionFee;
+    }
+
+    /**
+     * Gets the total net pay.
+     *
+     * @return the net pay, in cents
+     */
+    public long getNetPay() {
+        return netPay;
+    }
+
+    /**
+     * Formats the totals as the columns of a CSV row, following the column order of
+     * PaySlips.csv: payslips,grossPay,incomeTax,prsi,usc,unionFee,netPay.
+     *
+     * @return the totals, with the amounts in euro
+     */
+    public String toCsv() {
+        StringBuilder row = new StringBuilder(96).append(payslips);
+        for (long amount : new long[]{grossPay, incomeTax, prsi, usc, unionFee, netPay}) {
+            Money.appendTo(row.append(','), amount);
+        }
+        return row.toString();
+    }
+}
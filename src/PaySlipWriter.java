@@ -1,13 +1,27 @@
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class PaySlipWriter {
+    static final String HEADER = "id,name,date,jobTitle,scalePoint,grossPay,incomeTax,prsi,usc,unionFee,netPay\n";
+
     private String filePath;
+    private boolean partitioned;
 
 
     /**
@@ -19,32 +33,333 @@ public class PaySlipWriter {
         this.filePath = filePath;
     }
 
+    private PaySlipWriter(String directory, boolean partitioned) {
+        this.filePath = directory;
+        this.partitioned = partitioned;
+    }
+
+    /**
+     * Constructs a PaySlipWriter that stores each pay period's payslips in a partition file of
+     * its own, e.g. payslips/2024/12.csv for December 2024. Each partition has the same format
+     * as PaySlips.csv, so readers of a single period only ever open that period's file, and
+     * the partitions of past years can be compressed with {@link #archive(int, LocalDate)}.
+     *
+     * @param directory The directory holding the partitions, e.g. "payslips".
+     * @return A writer for the partitioned payslip store.
+     */
+    public static PaySlipWriter partitioned(String directory) {
+        return new PaySlipWriter(directory, true);
+    }
+
+    /**
+     * Migrates a payslip file into partitions from the command line.
+     *
+     * <p>Options are given as {@code name=value} pairs:</p>
+     * <ul>
+     *     <li>{@code file} - the payslip file to migrate (default PaySlips.csv).</li>
+     *     <li>{@code partitions} - the partition directory (default payslips).</li>
+     * </ul>
+     *
+     * @param args the options, e.g. {@code file=PaySlips.csv partitions=payslips}
+     * @throws IOException if the payslip file cannot be read or a partition cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        String filePath = "PaySlips.csv";
+        String directory = "payslips";
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected name=value but got: " + arg);
+            }
+            String name = arg.substring(0, separator).trim();
+            String value = arg.substring(separator + 1).trim();
+
+            switch (name) {
+                case "file" -> filePath = value;
+                case "partitions" -> directory = value;
+                default -> throw new IllegalArgumentException("Unknown option: " + name);
+            }
+        }
+
+        int rows = migrate(filePath, directory);
+        System.out.println("Migrated " + rows + " payslips from " + filePath + " to " + directory + ".");
+    }
+
+    /**
+     * Returns the writer for the payslip store in use. Payslips are written to PaySlips.csv
+     * unless the {@code payroll.partitions} system property names a directory to partition
+     * them into. An existing PaySlips.csv is not read from partitions; it is moved into them
+     * with {@link #main(String[])}.
+     *
+     * @return The writer for the payslip store.
+     */
+    public static PaySlipWriter getDefault() {
+        String directory = System.getProperty("payroll.partitions");
+        if (directory == null || directory.isEmpty()) {
+            return new PaySlipWriter("PaySlips.csv");
+        }
+        return partitioned(directory);
+    }
+
 
     /**
      * Writes a payslip record to the PaySlips.csv file. If the file does not exist, a header row is added.
-     * The date field in the payslip data is formatted to MM/YYYY before writing.
+     * The date field in the payslip data is formatted to MM/YYYY before writing, and the new
+     * row is added to the file's {@link PaySlipIndex}.
+     *
+     * <p>The file is opened and closed for every record, which suits ad-hoc writes.
+     * Whole payroll runs should use {@link #openBatch(int)} instead.</p>
      *
      * @param payslipData An array containing the payslip details in the following order:
      *                    [id, name, date, jobTitle, scalePoint, grossPay, incomeTax, prsi, usc, unionFee, netPay].
      * @throws IOException If an error occurs while writing to the file.
      */
     public void writePayslip(String[] payslipData) throws IOException {
-        boolean fileExists = Files.exists(Paths.get(filePath));
+        PaySlipRowEncoder encoder = new PaySlipRowEncoder();
+        encoder.encode(payslipData);
+        write(partitioned ? getFilePath(LocalDate.parse(payslipData[2])) : filePath, encoder);
+    }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath, true))) {
+    /**
+     * Writes a calculated payslip to the PaySlips.csv file, opening and closing the file
+     * as {@link #writePayslip(String[])} does.
+     *
+     * @param payslip The payslip to write.
+     * @throws IOException If an error occurs while writing to the file.
+     */
+    public void writePayslip(PaySlipRecord payslip) throws IOException {
+        PaySlipRowEncoder encoder = new PaySlipRowEncoder();
+        encoder.encode(payslip);
+        write(getFilePath(payslip.getDate()), encoder);
+    }
 
+    private void write(String filePath, PaySlipRowEncoder encoder) throws IOException {
+        boolean fileExists = Files.exists(Paths.get(filePath));
+        if (!fileExists && partitioned) {
+            Files.createDirectories(Paths.get(filePath).getParent());
+        }
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath, StandardCharsets.UTF_8, true))) {
             if (!fileExists) {
-                writer.write("id,name,date,jobTitle,scalePoint,grossPay,incomeTax,prsi,usc,unionFee,netPay\n");
+                writer.write(HEADER);
             }
+            encoder.writeTo(writer);
+        }
+        PaySlipIndex.update(filePath);
+    }
 
+    /**
+     * Opens a batch writer that keeps the payslip file open for a whole payroll run.
+     * The rows only become visible in the payslip file once the batch is committed.
+     *
+     * @param batchSize The number of rows buffered between flushes.
+     * @return A batch writer for this writer's file.
+     * @throws IOException If the batch cannot be opened.
+     */
+    public PaySlipBatchWriter openBatch(int batchSize) throws IOException {
+        return new PaySlipBatchWriter(filePath, batchSize);
+    }
 
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/yyyy");
-            payslipData[2] = LocalDate.parse(payslipData[2]).format(formatter);
+    /**
+     * Opens a batch writer for the payslips of one pay period. Unless the store is
+     * partitioned, this is the same as {@link #openBatch(int)}.
+     *
+     * @param batchSize The number of rows buffered between flushes.
+     * @param date A date in the pay period.
+     * @return A batch writer for the file holding the period's payslips.
+     * @throws IOException If the batch cannot be opened.
+     */
+    public PaySlipBatchWriter openBatch(int batchSize, LocalDate date) throws IOException {
+        String periodFile = getFilePath(date);
+        if (partitioned) {
+            Files.createDirectories(Paths.get(periodFile).getParent());
+        }
+        return new PaySlipBatchWriter(periodFile, batchSize);
+    }
 
+    /**
+     * Gets the path of the file payslips are written to. For a partitioned store this is
+     * the directory holding the partitions, which sidecar files such as the year-to-date
+     * ledger are named after.
+     *
+     * @return The payslip file path, or the partition directory.
+     */
+    public String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Gets the path of the file holding the payslips of a pay period.
+     *
+     * @param date A date in the pay period.
+     * @return The payslip file, or the period's partition if the store is partitioned.
+     */
+    public String getFilePath(LocalDate date) {
+        if (!partitioned) {
+            return filePath;
+        }
+        return Paths.get(filePath, String.valueOf(date.getYear()),
+                String.format("%02d.csv", date.getMonthValue())).toString();
+    }
+
+    /**
+     * Gets the files that may hold payslips of a tax year, in period order.
+     *
+     * @param year The tax year.
+     * @return The payslip file, or the year's existing partitions if the store is partitioned.
+     * @throws IOException If the partition directory cannot be listed.
+     */
+    public List<String> getFilePaths(int year) throws IOException {
+        List<String> files = new ArrayList<>();
+        if (!partitioned) {
+            files.add(filePath);
+            return files;
+        }
+
+        Path yearDirectory = Paths.get(filePath, String.valueOf(year));
+        if (Files.isDirectory(yearDirectory)) {
+            try (DirectoryStream<Path> partitions = Files.newDirectoryStream(yearDirectory, "[0-9][0-9].csv")) {
+                for (Path partition : partitions) {
+                    files.add(partition.toString());
+                }
+            }
+        }
+        files.sort(null);
+        return files;
+    }
+
+    /**
+     * Compresses the partitions of a closed tax year into {@link PaySlipArchive}s. The
+     * payslips of the current tax year are still needed for the year-to-date totals, so only
+     * earlier years can be archived.
+     *
+     * @param year The tax year to archive.
+     * @param today The current date.
+     * @return The number of payslips archived.
+     * @throws IllegalStateException If the store is not partitioned.
+     * @throws IllegalArgumentException If the tax year is not over.
+     * @throws IOException If a partition cannot be read or its archive cannot be written.
+     */
+    public int archive(int year, LocalDate today) throws IOException {
+        if (!partitioned) {
+            throw new IllegalStateException("Only partitioned payslips can be archived, " + filePath + " is a single file");
+        }
+        if (year >= today.getYear()) {
+            throw new IllegalArgumentException("Tax year " + year + " is not over yet");
+        }
 
-            writer.write(String.join(",", payslipData) + "\n");
+        int rows = 0;
+        for (String partition : getFilePaths(year)) {
+            rows += PaySlipArchive.archive(partition);
         }
+        return rows;
+    }
+
+    /**
+     * Checks if payslips are stored in per-period partitions.
+     *
+     * @return true for a partitioned store, false for a single payslip file
+     */
+    public boolean isPartitioned() {
+        return partitioned;
     }
 
+    /**
+     * Splits a payslip file into per-period partitions in a single streaming pass.
+     *
+     * <p>Each row is appended to the partition of its MM/yyyy period, with one partition
+     * file open per period seen. The partitions are written under temporary names and only
+     * moved into place once the whole file has been read, after which the payslip file is
+     * renamed with a ".migrated" suffix so that it is not migrated again. Rows of a period
+     * whose partition already exists, e.g. from an earlier migration, are appended to it. The
+     * checkpoints of past payroll runs are renamed to match the partition directory, so
+     * completed periods are not paid again. Rows without a valid period are reported and left
+     * out.</p>
+     *
+     * @param filePath The payslip file to split, e.g. "PaySlips.csv".
+     * @param directory The directory to partition it into, e.g. "payslips".
+     * @return The number of rows migrated.
+     * @throws IOException If the file cannot be read, a partition cannot be written, or a
+     *                     period it needs has already been archived.
+     */
+    public static int migrate(String filePath, String directory) throws IOException {
+        Map<String, BufferedWriter> writers = new HashMap<>();
+        Map<Path, Path> partitions = new HashMap<>();
+        int rows = 0;
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
+            String line;
+
+            reader.readLine();
+
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",", 4);
+                String period = fields.length == 4 ? fields[2].trim() : "";
+                if (!period.matches("(0[1-9]|1[0-2])/[0-9]{4}")) {
+                    System.err.println("Invalid line format in " + filePath + ": " + line);
+                    continue;
+                }
+
+                BufferedWriter writer = writers.get(period);
+                if (writer == null) {
+                    Path partition = Paths.get(directory, period.substring(3), period.substring(0, 2) + ".csv");
+                    if (Files.exists(Paths.get(PaySlipArchive.archivePath(partition.toString())))) {
+                        throw new IOException("Partition " + partition + " has already been archived");
+                    }
+                    Files.createDirectories(partition.getParent());
+                    Path temp = Paths.get(partition + ".tmp");
+                    partitions.put(temp, partition);
+                    writer = new BufferedWriter(new FileWriter(temp.toFile(), StandardCharsets.UTF_8));
+                    if (!Files.exists(partition)) {
+                        writer.write(HEADER);
+                    }
+                    writers.put(period, writer);
+                }
+                writer.write(line);
+                writer.newLine();
+                rows++;
+            }
+        } catch (IOException e) {
+            for (BufferedWriter writer : writers.values()) {
+                writer.close();
+            }
+            for (Path temp : partitions.keySet()) {
+                Files.deleteIfExists(temp);
+            }
+            throw e;
+        }
+        for (BufferedWriter writer : writers.values()) {
+            writer.close();
+        }
+
+        for (Map.Entry<Path, Path> partition : partitions.entrySet()) {
+            Path temp = partition.getKey();
+            Path target = partition.getValue();
+            if (Files.exists(target)) {
+                try (OutputStream out = Files.newOutputStream(target, StandardOpenOption.APPEND)) {
+                    Files.copy(temp, out);
+                }
+                Files.delete(temp);
+                PaySlipIndex.update(target.toString());
+            } else {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
 
+        Path source = Paths.get(filePath);
+        Path sourceDirectory = source.toAbsolutePath().getParent();
+        String checkpointPrefix = source.getFileName() + ".";
+        try (DirectoryStream<Path> checkpoints = Files.newDirectoryStream(sourceDirectory, checkpointPrefix + "*.checkpoint")) {
+            for (Path checkpoint : checkpoints) {
+                String runId = checkpoint.getFileName().toString().substring(checkpointPrefix.length());
+                Files.move(checkpoint, Paths.get(directory + "." + runId), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Path migrated = Paths.get(filePath + ".migrated");
+        for (int copy = 1; Files.exists(migrated); copy++) {
+            migrated = Paths.get(filePath + ".migrated." + copy);
+        }
+        Files.move(source, migrated);
+        return rows;
+    }
 }
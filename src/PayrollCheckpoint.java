@@ -0,0 +1,224 @@
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+public class PayrollCheckpoint {
+    private static final DateTimeFormatter RUN_ID_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private String filePath;
+    private String runId;
+    private boolean started;
+    private long payslipFileLength;
+    private long stagingLength;
+    private Set<String> paidIds = new HashSet<>();
+    private String status = "";
+
+    private PayrollCheckpoint(String filePath, String runId) {
+        this.filePath = filePath;
+        this.runId = runId;
+    }
+
+    /**
+     * Gets the run ID of the payroll run for the pay period containing the given date.
+     *
+     * @param date A date in the pay period.
+     * @return The run ID in yyyy-MM format, e.g. "2024-12".
+     */
+    public static String runIdFor(LocalDate date) {
+        return date.format(RUN_ID_FORMATTER);
+    }
+
+    /**
+     * Loads the checkpoint of a payroll run from its checkpoint file.
+     *
+     * <p>The checkpoint file is a list of lines appended as the run progresses:</p>
+     * <ul>
+     *   <li>{@code run,<runId>,<payslipFileLength>,<stagingLength>} when the run starts, with
+     *       the length of the staging file as opened, i.e. its header if the payslip file is new.</li>
+     *   <li>{@code batch,<stagingLength>,<count>,<id>;<id>;...} after each batch of payslips is flushed.</li>
+     *   <li>{@code status,COMMITTING} and {@code status,COMPLETE} around the final commit.</li>
+     * </ul>
+     * <p>If the file does not exist, or belongs to a different run, an empty checkpoint is returned.</p>
+     *
+     * <p>A line cut short by a crash, i.e. a last line without its newline or a batch line
+     * whose number of IDs does not match its count, is ignored along with anything after it,
+     * so the checkpoint is left as it was after the last complete batch.</p>
+     *
+     * @param filePath The path to the checkpoint file.
+     * @param runId The ID of the payroll run.
+     * @return The checkpoint of the run.
+     * @throws IOException If the checkpoint file cannot be read.
+     */
+    public static PayrollCheckpoint load(String filePath, String runId) throws IOException {
+        PayrollCheckpoint checkpoint = new PayrollCheckpoint(filePath, runId);
+        if (!Files.exists(Paths.get(filePath))) {
+            return checkpoint;
+        }
+
+        String content = new String(Files.readAllBytes(Paths.get(filePath)), StandardCharsets.UTF_8);
+        // Only lines ended by a newline were written in full
+        String[] lines = content.substring(0, content.lastIndexOf('\n') + 1).split("\n");
+        for (String line : lines) {
+            String[] fields = line.split(",", 4);
+            if (fields.length < 2) {
+                continue;
+            }
+
+            try {
+                if (fields[0].equals("run") && fields.length >= 3) {
+                    if (!fields[1].equals(runId)) {
+                        return new PayrollCheckpoint(filePath, runId);
+                    }
+                    checkpoint.started = true;
+                    checkpoint.payslipFileLength = Long.parseLong(fields[2]);
+                    checkpoint.stagingLength = fields.length == 4 ? Long.parseLong(fields[3]) : 0;
+                } else if (fields[0].equals("batch")) {
+                    if (fields.length < 4 || fields[3].split(";").length != Integer.parseInt(fields[2])) {
+                        break;
+                    }
+                    String[] ids = fields[3].split(";");
+                    checkpoint.stagingLength = Long.parseLong(fields[1]);
+                    for (String id : ids) {
+                        checkpoint.paidIds.add(id);
+                    }
+                } else if (fields[0].equals("status")) {
+                    checkpoint.status = fields[1];
+                }
+            } catch (NumberFormatException e) {
+                // A line cut short by a crash; everything recorded before it is still valid
+                break;
+            }
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Starts a new run, discarding anything previously recorded in the checkpoint file.
+     *
+     * @param payslipFileLength The length of the payslip file when the run started.
+     * @param stagingLength The length of the staging file as opened, before any payslips.
+     * @throws IOException If the checkpoint file cannot be written.
+     */
+    public void start(long payslipFileLength, long stagingLength) throws IOException {
+        Files.deleteIfExists(Paths.get(filePath));
+        this.started = true;
+        this.payslipFileLength = payslipFileLength;
+        this.stagingLength = stagingLength;
+        this.paidIds.clear();
+        this.status = "";
+        append("run," + runId + "," + payslipFileLength + "," + stagingLength);
+    }
+
+    /**
+     * Records a batch of payslips that has been flushed to the staging file.
+     *
+     * @param stagingLength The length of the staging file after the batch was flushed.
+     * @param employeeIds The IDs of the employees paid in the batch.
+     * @throws IOException If the checkpoint file cannot be written.
+     */
+    public void recordBatch(long stagingLength, Collection<String> employeeIds) throws IOException {
+        if (employeeIds.isEmpty()) {
+            return;
+        }
+        append("batch," + stagingLength + "," + employeeIds.size() + "," + String.join(";", employeeIds));
+        this.stagingLength = stagingLength;
+        this.paidIds.addAll(employeeIds);
+    }
+
+    /**
+     * Records that the staging file is about to replace the payslip file.
+     *
+     * @throws IOException If the checkpoint file cannot be written.
+     */
+    public void markCommitting() throws IOException {
+        append("status,COMMITTING");
+        status = "COMMITTING";
+    }
+
+    /**
+     * Records that the run has been committed and the pay period is complete.
+     *
+     * @throws IOException If the checkpoint file cannot be written.
+     */
+    public void markComplete() throws IOException {
+        append("status,COMPLETE");
+        status = "COMPLETE";
+    }
+
+    private void append(String line) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(filePath, true)) {
+            out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        }
+    }
+
+    /**
+     * Gets the ID of the run this checkpoint belongs to.
+     *
+     * @return The run ID.
+     */
+    public String getRunId() {
+        return runId;
+    }
+
+    /**
+     * Checks if the run has been started.
+     *
+     * @return true if a run has been recorded, false otherwise
+     */
+    public boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * Checks if the run was being committed when it was last recorded.
+     *
+     * @return true if the commit was started, false otherwise
+     */
+    public boolean isCommitting() {
+        return status.equals("COMMITTING");
+    }
+
+    /**
+     * Checks if the run has been completed.
+     *
+     * @return true if the pay period is complete, false otherwise
+     */
+    public boolean isComplete() {
+        return status.equals("COMPLETE");
+    }
+
+    /**
+     * Gets the length of the payslip file when the run started.
+     *
+     * @return The payslip file length in bytes.
+     */
+    public long getPayslipFileLength() {
+        return payslipFileLength;
+    }
+
+    /**
+     * Gets the length of the staging file after the last recorded batch.
+     *
+     * @return The staging file length in bytes.
+     */
+    public long getStagingLength() {
+        return stagingLength;
+    }
+
+    /**
+     * Gets the IDs of the employees already paid in this run.
+     *
+     * @return The paid employee IDs.
+     */
+    public Set<String> getPaidIds() {
+        return paidIds;
+    }
+}
@@ -0,0 +1,389 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class PayrollEngine {
+    private static final int WRITE_BATCH_SIZE = 1000;
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private String employeeInfoFile;
+    private String employeeStatusFile;
+    private String payClaimsFile;
+    private String salaryScalesFile;
+    private String taxRulesFile = "TaxRules.csv";
+    private PaySlipWriter writer;
+    private int parallelism = 1;
+    private int enrichmentParallelism = 1;
+    private PayrollLedger ledger;
+    private String metricsFile;
+    private PayrollMetrics metrics = new PayrollMetrics();
+
+    /**
+     * Constructs a payroll engine over the given data files.
+     *
+     * @param employeeInfoFile The path to EmployeeInfo.csv.
+     * @param employeeStatusFile The path to EmployeeStatus.csv.
+     * @param payClaimsFile The path to PayClaims.csv.
+     * @param salaryScalesFile The path to FulltimeSalaryScales.csv.
+     * @param writer The writer used to store the generated payslips.
+     */
+    public PayrollEngine(String employeeInfoFile, String employeeStatusFile, String payClaimsFile, String salaryScalesFile, PaySlipWriter writer) {
+        this.employeeInfoFile = employeeInfoFile;
+        this.employeeStatusFile = employeeStatusFile;
+        this.payClaimsFile = payClaimsFile;
+        this.salaryScalesFile = salaryScalesFile;
+        this.writer = writer;
+    }
+
+    /**
+     * Sets the tax rules file used to calculate deductions. Defaults to TaxRules.csv.
+     *
+     * @param taxRulesFile The path to the tax rules file.
+     */
+    public void setTaxRulesFile(String taxRulesFile) {
+        this.taxRulesFile = taxRulesFile;
+    }
+
+    /**
+     * Sets the number of threads used to calculate payslips. A parallelism of 1 calculates
+     * them sequentially on a single calculation thread.
+     *
+     * <p>The payslips are written in EmployeeInfo.csv order whatever the parallelism, so the
+     * output of a parallel run is identical to that of a sequential run.</p>
+     *
+     * @param parallelism The number of threads to use, at least 1.
+     * @throws IllegalArgumentException If the parallelism is less than 1.
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, got: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the number of threads that join employee records with their status, salary scale
+     * and pay claims before the payslips are calculated.
+     *
+     * @param enrichmentParallelism The number of threads to use, at least 1.
+     * @throws IllegalArgumentException If the parallelism is less than 1.
+     */
+    public void setEnrichmentParallelism(int enrichmentParallelism) {
+        if (enrichmentParallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, got: " + enrichmentParallelism);
+        }
+        this.enrichmentParallelism = enrichmentParallelism;
+    }
+
+    /**
+     * Sets the file that the metrics of each run are written to when the run ends. The
+     * metrics are written as JSON if the file name ends with ".json" and in the Prometheus
+     * text format otherwise.
+     *
+     * @param metricsFile The path of the metrics file, or null to not write metrics.
+     */
+    public void setMetricsFile(String metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
+    /**
+     * Gets the metrics of the last run: stage times, throughput, payslip latencies,
+     * file activity and errors.
+     *
+     * @return The metrics of the last run.
+     */
+    public PayrollMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Calculates the payslips for every employee and writes them in EmployeeInfo.csv order.
+     *
+     * <p>All payslips of the run are written through a single {@link PaySlipBatchWriter},
+     * so the payslip file is opened once and only updated if the whole run succeeds.</p>
+     *
+     * <p>Each run is identified by its pay period and keeps a {@link PayrollCheckpoint} of the
+     * employees whose payslips have been flushed. If a run fails or is killed, running it again
+     * for the same period continues from the last checkpoint instead of paying everyone twice.
+     * Running it again once the period is complete does nothing.</p>
+     *
+     * @param today The date of the payroll run.
+     * @return The number of payslips written by this call.
+     * @throws IOException If an input file cannot be read or a payslip cannot be written.
+     */
+    public int run(LocalDate today) throws IOException {
+        metrics = new PayrollMetrics();
+        try {
+            return runFromCheckpoint(today);
+        } catch (IOException | RuntimeException e) {
+            metrics.recordError(e.getClass().getSimpleName());
+            throw e;
+        } finally {
+            metrics.finish();
+            if (metricsFile != null) {
+                try {
+                    metrics.write(metricsFile);
+                } catch (IOException e) {
+                    System.err.println("Error writing payroll metrics to " + metricsFile + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private int runFromCheckpoint(LocalDate today) throws IOException {
+        String payslipFile = writer.getFilePath(today);
+        PayrollCheckpoint checkpoint = loadCheckpoint(today);
+
+        if (checkpoint.isCommitting() && !Files.exists(PaySlipBatchWriter.stagingPath(payslipFile))) {
+            // The staging file was appended and deleted before the run could record it
+            checkpoint.markComplete();
+        }
+        if (checkpoint.isComplete()) {
+            System.out.println("Payroll run " + checkpoint.getRunId() + " is already complete.");
+            return 0;
+        }
+
+        Path payslipPath = Paths.get(payslipFile);
+        long payslipFileLength = Files.exists(payslipPath) ? Files.size(payslipPath) : 0;
+        // A commit cut short leaves part of the staging file appended, which resuming cuts off again
+        boolean resuming = checkpoint.isStarted()
+                && (checkpoint.getPayslipFileLength() == payslipFileLength
+                    || (checkpoint.isCommitting() && checkpoint.getPayslipFileLength() < payslipFileLength))
+                && Files.exists(PaySlipBatchWriter.stagingPath(payslipFile));
+
+        if (resuming) {
+            System.out.println("Resuming payroll run " + checkpoint.getRunId() + ", "
+                    + checkpoint.getPaidIds().size() + " employees already paid.");
+        }
+
+        int written;
+        try (PaySlipBatchWriter batch = resuming
+                ? PaySlipBatchWriter.resume(payslipFile, WRITE_BATCH_SIZE,
+                        checkpoint.getStagingLength(), checkpoint.getPayslipFileLength())
+                : writer.openBatch(WRITE_BATCH_SIZE, today)) {
+            if (!resuming) {
+                // Recorded after opening, so a resume keeps the header written to a new payslip file
+                checkpoint.start(payslipFileLength, batch.getFlushedLength());
+            }
+            List<String> batchIds = new ArrayList<>();
+            long initialLength = resuming ? checkpoint.getStagingLength() : 0;
+            metrics.recordFileOpen();
+
+            written = process(today, checkpoint.getPaidIds(), payslip -> {
+                batch.writePayslip(payslip);
+                ledger.record(payslip);
+                batchIds.add(payslip.getEmployeeId());
+
+                if (batchIds.size() >= WRITE_BATCH_SIZE) {
+                    batch.flush();
+                    checkpoint.recordBatch(batch.getFlushedLength(), batchIds);
+                    batchIds.clear();
+                }
+            });
+
+            long commitStart = System.nanoTime();
+            batch.flush();
+            checkpoint.recordBatch(batch.getFlushedLength(), batchIds);
+            metrics.addBytesWritten(batch.getFlushedLength() - initialLength);
+
+            checkpoint.markCommitting();
+            batch.commit();
+            checkpoint.markComplete();
+
+            if (resuming) {
+                // The ledger only holds the payslips written since the run resumed
+                ledger = PayrollLedger.rebuild(ledgerPath(), writer.getFilePaths(today.getYear()), today.getYear());
+            }
+            ledger.save(PayrollLedger.totalLength(writer.getFilePaths(today.getYear())));
+            metrics.addStageTime("commit", System.nanoTime() - commitStart);
+        }
+        return written;
+    }
+
+    /**
+     * Checks if the payroll run for the pay period containing the given date has completed.
+     *
+     * @param today A date in the pay period.
+     * @return true if the period has already been paid, false otherwise
+     * @throws IOException If the checkpoint file cannot be read.
+     */
+    public boolean isComplete(LocalDate today) throws IOException {
+        PayrollCheckpoint checkpoint = loadCheckpoint(today);
+        return checkpoint.isComplete()
+                || (checkpoint.isCommitting() && !Files.exists(PaySlipBatchWriter.stagingPath(writer.getFilePath(today))));
+    }
+
+    private String ledgerPath() {
+        return writer.getFilePath() + ".ytd";
+    }
+
+    private PayrollCheckpoint loadCheckpoint(LocalDate today) throws IOException {
+        String runId = PayrollCheckpoint.runIdFor(today);
+        return PayrollCheckpoint.load(writer.getFilePath() + "." + runId + ".checkpoint", runId);
+    }
+
+    /**
+     * Calculates the payslips for every employee without writing them.
+     *
+     * <p>EmployeeInfo.csv, EmployeeStatus.csv, PayClaims.csv, FulltimeSalaryScales.csv and
+     * TaxRules.csv are each read exactly once, with EmployeeInfo.csv streamed through a
+     * {@link PayrollPipeline}. The status and the latest pay claim of every employee are then
+     * joined to their EmployeeInfo.csv record by username in memory:</p>
+     * <ul>
+     *   <li>Full-time employees are paid from the salary scales.</li>
+     *   <li>Part-time employees are paid from their latest claim, if it is from the current month.</li>
+     *   <li>Employees without a work status are skipped.</li>
+     * </ul>
+     *
+     * <p>The calculations are independent of each other and are spread over the configured
+     * number of threads. The payslips are put back in employee order afterwards, so the
+     * result is in the same order as a sequential run.</p>
+     *
+     * @param today The date of the payroll run.
+     * @return The payslip of each paid employee, in EmployeeInfo.csv order.
+     * @throws IOException If an input file cannot be read or a salary is missing for a full-time employee.
+     */
+    public List<PaySlipRecord> calculatePayslips(LocalDate today) throws IOException {
+        return calculatePayslips(today, Collections.emptySet());
+    }
+
+    /**
+     * Calculates the payslips for every employee not yet paid, without writing them.
+     *
+     * @param today The date of the payroll run.
+     * @param paidIds The IDs of employees already paid in this run, who are skipped.
+     * @return The payslip of each employee to pay, in EmployeeInfo.csv order.
+     * @throws IOException If an input file cannot be read or a salary is missing for a full-time employee.
+     */
+    public List<PaySlipRecord> calculatePayslips(LocalDate today, Set<String> paidIds) throws IOException {
+        List<PaySlipRecord> payslips = new ArrayList<>();
+        metrics = new PayrollMetrics();
+        process(today, paidIds, payslips::add);
+        metrics.finish();
+        return payslips;
+    }
+
+    /**
+     * Runs every employee through a {@link PayrollPipeline} and passes their payslips to the
+     * sink in EmployeeInfo.csv order. EmployeeInfo.csv is streamed; the work statuses, pay
+     * claims and salary scales are loaded once and joined to each record by username.
+     */
+    private int process(LocalDate today, Set<String> paidIds, PayrollPipeline.Sink sink) throws IOException {
+        long loadStart = System.nanoTime();
+        Map<String, String> workStatusMap = loadWorkStatus();
+        Map<String, PayClaim> latestClaims = new PayClaimsReader(payClaimsFile).readLatestClaims();
+        metrics.recordFileRead(Files.size(Paths.get(payClaimsFile)));
+        SalaryScaleTable salaryTable = SalaryScaleTable.getTable(salaryScalesFile);
+        TaxRules taxRules = TaxRules.getRules(taxRulesFile);
+        ledger = PayrollLedger.load(ledgerPath(), writer.getFilePaths(today.getYear()), today.getYear());
+        metrics.addStageTime("load", System.nanoTime() - loadStart);
+
+        PaySlipCalculator calculator = new PaySlipCalculator(new FulltimeSalaryScalesReader(salaryTable), writer, taxRules);
+
+        PayrollPipeline pipeline = new PayrollPipeline(QUEUE_CAPACITY, enrichmentParallelism, parallelism, metrics);
+        int count = pipeline.run(employeeInfoFile,
+                employeeData -> enrich(employeeData, workStatusMap, latestClaims, paidIds, today),
+                input -> calculate(calculator, input, today),
+                sink);
+
+        if (parallelism > 1) {
+            long elapsedNanos = Math.max(1, pipeline.getElapsedNanos());
+            // Thread time spent calculating per unit of wall time: how many threads were busy, not a speedup
+            System.out.printf("Calculated %d payslips in %.1f ms using %d threads (calculate parallelism %.2fx)%n",
+                    count, elapsedNanos / 1_000_000.0, parallelism, (double) metrics.getStageTime("calculate") / elapsedNanos);
+        }
+        return count;
+    }
+
+    /**
+     * Joins an employee's record with their work status and latest pay claim.
+     *
+     * @return The employee's payroll input, or null if they are not paid in this run.
+     */
+    private PayrollInput enrich(String[] employeeData, Map<String, String> workStatusMap, Map<String, PayClaim> latestClaims,
+                                Set<String> paidIds, LocalDate today) {
+        if (employeeData == null || employeeData.length < 2) {
+            return null;
+        }
+
+        String username = employeeData[1].trim();
+        String workStatus = workStatusMap.get(username);
+
+        if (workStatus == null || paidIds.contains(employeeData[0].trim())) {
+            return null;
+        }
+
+        if ("Full-Time".equalsIgnoreCase(workStatus)) {
+            return new PayrollInput(employeeData, null);
+        } else if ("Part-Time".equalsIgnoreCase(workStatus)) {
+            PayClaim claim = latestClaims.get(username);
+
+            if (claim == null) {
+                return null;
+            }
+
+            LocalDate claimDate = claim.getClaimDate();
+            if (claimDate.getMonth() == today.getMonth() && claimDate.getYear() == today.getYear()) {
+                return new PayrollInput(employeeData, claim);
+            }
+            System.err.println("Latest pay claim is not from the current month for Employee: " + username);
+            metrics.recordError("StalePayClaim");
+        }
+        return null;
+    }
+
+    /**
+     * Calculates one payslip: from the salary scales for a full-time employee, or from
+     * their pay claim for a part-time employee, on a cumulative basis from the employee's
+     * totals in the year-to-date ledger.
+     */
+    private PaySlipRecord calculate(PaySlipCalculator calculator, PayrollInput input, LocalDate today) throws IOException {
+        String[] employeeData = input.getEmployeeData();
+        PayClaim claim = input.getClaim();
+        PayrollLedger.Entry yearToDate = ledger.get(employeeData[0].trim());
+
+        if (input.isFullTime()) {
+            return calculator.calculatePayslip(employeeData, today, yearToDate);
+        }
+        return calculator.calculatePartTimePayslip(employeeData[0].trim(), employeeData[2].trim(),
+                claim.getHoursWorked(), claim.getHourlyPay(), claim.getClaimDate(), yearToDate);
+    }
+
+    /**
+     * Loads the work status of employees and maps each username to its work status
+     * (e.g., "Full-Time" or "Part-Time").
+     *
+     * @return A map containing usernames as keys and their corresponding work statuses as values.
+     */
+    private Map<String, String> loadWorkStatus() {
+        Map<String, String> workStatusMap = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(employeeStatusFile, StandardCharsets.UTF_8))) {
+            metrics.recordFileRead(Files.size(Paths.get(employeeStatusFile)));
+            String line = reader.readLine();
+
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length >= 2) {
+                    String username = fields[0].trim();
+                    String workStatus = fields[1].trim();
+                    workStatusMap.put(username, workStatus);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading work status data: " + e.getMessage());
+            metrics.recordError(e.getClass().getSimpleName());
+        }
+        return workStatusMap;
+    }
+}
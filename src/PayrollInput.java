@@ -0,0 +1,42 @@
+public class PayrollInput {
+    private String[] employeeData;
+    private PayClaim claim;
+
+    /**
+     * Constructs the payroll input of one employee.
+     *
+     * @param employeeData the employee's record as read from EmployeeInfo.csv
+     * @param claim the pay claim to pay a part-time employee from, or null for a full-time employee
+     */
+    public PayrollInput(String[] employeeData, PayClaim claim) {
+        this.employeeData = employeeData;
+        this.claim = claim;
+    }
+
+    /**
+     * Gets the employee's record as read from EmployeeInfo.csv.
+     *
+     * @return the employee data
+     */
+    public String[] getEmployeeData() {
+        return employeeData;
+    }
+
+    /**
+     * Gets the pay claim a part-time employee is paid from.
+     *
+     * @return the pay claim, or null for a full-time employee
+     */
+    public PayClaim getClaim() {
+        return claim;
+    }
+
+    /**
+     * Checks if the employee is paid from the salary scales rather than a pay claim.
+     *
+     * @return true for a full-time employee, false for a part-time employee
+     */
+    public boolean isFullTime() {
+        return claim == null;
+    }
+}
@@ -0,0 +1,262 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class PayrollLedger {
+    private static final Entry EMPTY = new Entry(0, 0, 0, 0, 0);
+
+    private String filePath;
+    private int taxYear;
+    private Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private PayrollLedger(String filePath, int taxYear) {
+        this.filePath = filePath;
+        this.taxYear = taxYear;
+    }
+
+    /**
+     * Loads the year-to-date ledger for a tax year.
+     *
+     * <p>The ledger file starts with a {@code ytd,<taxYear>,<payslipFileLength>} line, followed by
+     * one {@code <id>,<payslips>,<grossPay>,<incomeTax>,<prsi>,<usc>} line per employee with the
+     * amounts in cents. The payslip file length records the total length of the payslip files
+     * the ledger was saved against. If the payslip files have changed since, for example because
+     * a run committed its payslips but failed before saving the ledger, the ledger is rebuilt
+     * from the payslip files instead.</p>
+     *
+     * @param filePath The path to the ledger file.
+     * @param payslipFiles The payslip files the ledger summarises: PaySlips.csv, or the partitions of the tax year.
+     * @param taxYear The tax year being paid.
+     * @return The ledger of the tax year.
+     * @throws IOException If the ledger or a payslip file cannot be read.
+     */
+    public static PayrollLedger load(String filePath, List<String> payslipFiles, int taxYear) throws IOException {
+        long payslipFileLength = totalLength(payslipFiles);
+        if (!Files.exists(Paths.get(filePath))) {
+            return rebuild(filePath, payslipFiles, taxYear);
+        }
+
+        PayrollLedger ledger = new PayrollLedger(filePath, taxYear);
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
+            String[] header = String.valueOf(reader.readLine()).split(",");
+            if (header.length != 3 || !header[0].equals("ytd")
+                    || Long.parseLong(header[2]) != payslipFileLength) {
+                return rebuild(filePath, payslipFiles, taxYear);
+            }
+            if (Integer.parseInt(header[1]) != taxYear) {
+                // Nothing has been paid in the new tax year yet
+                return ledger;
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length == 6) {
+                    ledger.entries.put(fields[0], new Entry(Integer.parseInt(fields[1]), Long.parseLong(fields[2]),
+                            Long.parseLong(fields[3]), Long.parseLong(fields[4]), Long.parseLong(fields[5])));
+                }
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid ledger file " + filePath + ", rebuilding it from " + payslipFiles);
+            return rebuild(filePath, payslipFiles, taxYear);
+        }
+        return ledger;
+    }
+
+    /**
+     * Rebuilds the year-to-date ledger for a tax year by summing every payslip of that year in
+     * the payslip files.
+     *
+     * @param filePath The path the ledger will be saved to.
+     * @param payslipFiles The payslip files to sum, in the order they were written.
+     * @param taxYear The tax year to sum.
+     * @return The rebuilt ledger.
+     * @throws IOException If a payslip file cannot be read.
+     */
+    public static PayrollLedger rebuild(String filePath, List<String> payslipFiles, int taxYear) throws IOException {
+        PayrollLedger ledger = new PayrollLedger(filePath, taxYear);
+        for (String payslipFile : payslipFiles) {
+            if (Files.exists(Paths.get(payslipFile))) {
+                ledger.addAll(payslipFile);
+            }
+        }
+        return ledger;
+    }
+
+    private void addAll(String payslipFile) throws IOException {
+        String yearSuffix = "/" + taxYear;
+        try (BufferedReader reader = new BufferedReader(new FileReader(payslipFile, StandardCharsets.UTF_8))) {
+            String line;
+
+            reader.readLine();
+
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length != 11 || !fields[2].trim().endsWith(yearSuffix)) {
+                    continue;
+                }
+
+                try {
+                    add(fields[0].trim(), Money.parse(fields[5]), Money.parse(fields[6]),
+                            Money.parse(fields[7]), Money.parse(fields[8]));
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid line format in " + payslipFile + ": " + line);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the total length of a list of payslip files, as recorded when the ledger is saved.
+     *
+     * @param payslipFiles The payslip files.
+     * @return The sum of their lengths in bytes, counting missing files as empty.
+     * @throws IOException If the length of a file cannot be read.
+     */
+    public static long totalLength(List<String> payslipFiles) throws IOException {
+        long length = 0;
+        for (String payslipFile : payslipFiles) {
+            Path payslipPath = Paths.get(payslipFile);
+            if (Files.exists(payslipPath)) {
+                length += Files.size(payslipPath);
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Gets an employee's totals for the tax year so far.
+     *
+     * @param employeeId The employee's ID.
+     * @return The employee's totals, all zero if they have not been paid this tax year.
+     */
+    public Entry get(String employeeId) {
+        Entry entry = entries.get(employeeId);
+        return entry == null ? EMPTY : entry;
+    }
+
+    /**
+     * Adds a payslip to its employee's totals. Each employee's payslips must be recorded in the
+     * order they are paid; the ledger is not saved until {@link #save(long)} is called.
+     *
+     * @param payslip The payslip to add.
+     */
+    public void record(PaySlipRecord payslip) {
+        add(payslip.getEmployeeId(), payslip.getGrossPay(), payslip.getIncomeTax(), payslip.getPRSI(), payslip.getUSC());
+    }
+
+    private void add(String employeeId, long grossPay, long incomeTax, long prsi, long usc) {
+        entries.merge(employeeId, new Entry(1, grossPay, incomeTax, prsi, usc), Entry::plus);
+    }
+
+    /**
+     * Gets the tax year the ledger holds totals for.
+     *
+     * @return The tax year.
+     */
+    public int getTaxYear() {
+        return taxYear;
+    }
+
+    /**
+     * Saves the ledger, replacing the previous file.
+     *
+     * @param payslipFileLength The total length of the payslip files the ledger now matches.
+     * @throws IOException If the file cannot be written.
+     */
+    public void save(long payslipFileLength) throws IOException {
+        Path target = Paths.get(filePath);
+        Path temp = Paths.get(filePath + ".tmp");
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(temp.toFile(), StandardCharsets.UTF_8))) {
+            writer.write("ytd," + taxYear + "," + payslipFileLength);
+            writer.newLine();
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                Entry totals = entry.getValue();
+                writer.write(entry.getKey() + "," + totals.payslips + "," + totals.grossPay + ","
+                        + totals.incomeTax + "," + totals.prsi + "," + totals.usc);
+                writer.newLine();
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * One employee's totals for the tax year so far, in cents.
+     */
+    public static class Entry {
+        private final int payslips;
+        private final long grossPay;
+        private final long incomeTax;
+        private final long prsi;
+        private final long usc;
+
+        Entry(int payslips, long grossPay, long incomeTax, long prsi, long usc) {
+            this.payslips = payslips;
+            this.grossPay = grossPay;
+            this.incomeTax = incomeTax;
+            this.prsi = prsi;
+            this.usc = usc;
+        }
+
+        private Entry plus(Entry other) {
+            return new Entry(payslips + other.payslips, grossPay + other.grossPay, incomeTax + other.incomeTax,
+                    prsi + other.prsi, usc + other.usc);
+        }
+
+        /**
+         * Gets the number of payslips paid this tax year.
+         *
+         * @return the number of payslips
+         */
+        public int getPayslips() {
+            return payslips;
+        }
+
+        /**
+         * Gets the gross pay paid this tax year.
+         *
+         * @return the gross pay, in cents
+         */
+        public long getGrossPay() {
+            return grossPay;
+        }
+
+        /**
+         * Gets the income tax deducted this tax year.
+         *
+         * @return the income tax, in cents
+         */
+        public long getIncomeTax() {
+            return incomeTax;
+        }
+
+        /**
+         * Gets the PRSI deducted this tax year.
+         *
+         * @return the PRSI, in cents
+         */
+        public long getPRSI() {
+            return prsi;
+        }
+
+        /**
+         * Gets the USC deducted this tax year.
+         *
+         * @return the USC, in cents
+         */
+        public long getUSC() {
+            return usc;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PayrollMetrics {
+    // Upper bounds of the payslip latency histogram buckets, in nanoseconds
+    private static final long[] LATENCY_BOUNDS = {
+            1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000,
+            1_000_000, 10_000_000, 100_000_000, 1_000_000_000
+    };
+
+    private Map<String, LongAdder> stageNanos = new ConcurrentHashMap<>();
+    private Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private LongAdder[] latencyBuckets = new LongAdder[LATENCY_BOUNDS.length + 1];
+    private LongAdder latencySumNanos = new LongAdder();
+    private LongAdder employeesProcessed = new LongAdder();
+    private LongAdder fileOpens = new LongAdder();
+    private LongAdder bytesRead = new LongAdder();
+    private LongAdder bytesWritten = new LongAdder();
+    private long runStart = System.nanoTime();
+    private long runNanos = -1;
+
+    /**
+     * Constructs an empty set of metrics for one payroll run. The run's wall time is
+     * measured from construction until {@link #finish()}.
+     */
+    public PayrollMetrics() {
+        for (int i = 0; i < latencyBuckets.length; i++) {
+            latencyBuckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Adds time spent in a stage of the run. Stages run on several threads add up their
+     * busy time, so a stage's total can exceed the run's wall time.
+     *
+     * @param stage the name of the stage, e.g. "calculate"
+     * @param nanos the time spent, in nanoseconds
+     */
+    public void addStageTime(String stage, long nanos) {
+        stageNanos.computeIfAbsent(stage, key -> new LongAdder()).add(nanos);
+    }
+
+    /**
+     * Gets the total time recorded for a stage.
+     *
+     * @param stage the name of the stage
+     * @return the time spent in the stage, in nanoseconds
+     */
+    public long getStageTime(String stage) {
+        LongAdder nanos = stageNanos.get(stage);
+        return nanos == null ? 0 : nanos.sum();
+    }
+
+    /**
+     * Records the calculation of one payslip.
+     *
+     * @param latencyNanos the time taken to calculate the payslip, in nanoseconds
+     */
+    public void recordPayslip(long latencyNanos) {
+        int bucket = 0;
+        while (bucket < LATENCY_BOUNDS.length && latencyNanos > LATENCY_BOUNDS[bucket]) {
+            bucket++;
+        }
+        latencyBuckets[bucket].increment();
+        latencySumNanos.add(latencyNanos);
+    }
+
+    /**
+     * Records an employee that has passed through the whole run.
+     */
+    public void recordEmployeeProcessed() {
+        employeesProcessed.increment();
+    }
+
+    /**
+     * Records a file opened by the run and the number of bytes read from it.
+     *
+     * @param bytes the number of bytes read
+     */
+    public void recordFileRead(long bytes) {
+        fileOpens.increment();
+        bytesRead.add(bytes);
+    }
+
+    /**
+     * Records a file opened by the run for writing.
+     */
+    public void recordFileOpen() {
+        fileOpens.increment();
+    }
+
+    /**
+     * Adds to the number of bytes written by the run.
+     *
+     * @param bytes the number of bytes written
+     */
+    public void addBytesWritten(long bytes) {
+        bytesWritten.add(bytes);
+    }
+
+    /**
+     * Records an error or warning raised during the run.
+     *
+     * @param type the type of error, e.g. the exception's class name
+     */
+    public void recordError(String type) {
+        errors.computeIfAbsent(type, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Stops the run's wall clock. Metrics written before this use the time elapsed so far.
+     */
+    public void finish() {
+        runNanos = System.nanoTime() - runStart;
+    }
+
+    /**
+     * Gets the number of employees processed per second of wall time.
+     *
+     * @return the throughput of the run
+     */
+    public double getEmployeesPerSecond() {
+        double seconds = Math.max(1, getRunNanos()) / 1e9;
+        return employeesProcessed.sum() / seconds;
+    }
+
+    private long getRunNanos() {
+        return runNanos >= 0 ? runNanos : System.nanoTime() - runStart;
+    }
+
+    /**
+     * Writes the metrics to a file, in JSON if the file name ends with ".json" and in the
+     * Prometheus text exposition format otherwise.
+     *
+     * @param filePath the path of the metrics file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(String filePath) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath, StandardCharsets.UTF_8))) {
+            writer.write(filePath.toLowerCase().endsWith(".json") ? toJson() : toPrometheus());
+        }
+    }
+
+    /**
+     * Formats the metrics in the Prometheus text exposition format.
+     *
+     * @return the metrics text
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder();
+
+        out.append("# HELP payroll_run_seconds Wall time of the payroll run.\n");
+        out.append("# TYPE payroll_run_seconds gauge\n");
+        out.append("payroll_run_seconds ").append(seconds(getRunNanos())).append('\n');
+
+        out.append("# HELP payroll_stage_seconds Time spent in each stage of the run, summed over its threads.\n");
+        out.append("# TYPE payroll_stage_seconds gauge\n");
+        for (Map.Entry<String, Long> stage : sorted(stageNanos).entrySet()) {
+            out.append("payroll_stage_seconds{stage=\"").append(stage.getKey()).append("\"} ")
+                    .append(seconds(stage.getValue())).append('\n');
+        }
+
+        out.append("# HELP payroll_employees_processed_total Employees processed by the run.\n");
+        out.append("# TYPE payroll_employees_processed_total counter\n");
+        out.append("payroll_employees_processed_total ").append(employeesProcessed.sum()).append('\n');
+
+        out.append("# HELP payroll_employees_per_second Employees processed per second of wall time.\n");
+        out.append("# TYPE payroll_employees_per_second gauge\n");
+        out.append("payroll_employees_per_second ").append(format(getEmployeesPerSecond())).append('\n');
+
+        out.append("# HELP payroll_payslip_latency_seconds Time taken to calculate each payslip.\n");
+        out.append("# TYPE payroll_payslip_latency_seconds histogram\n");
+        long cumulative = 0;
+        for (int i = 0; i < latencyBuckets.length; i++) {
+            cumulative += latencyBuckets[i].sum();
+            String bound = i < LATENCY_BOUNDS.length ? seconds(LATENCY_BOUNDS[i]) : "+Inf";
+            out.append("payroll_payslip_latency_seconds_bucket{le=\"").append(bound).append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+        out.append("payroll_payslip_latency_seconds_sum ").append(seconds(latencySumNanos.sum())).append('\n');
+        out.append("payroll_payslip_latency_seconds_count ").append(cumulative).append('\n');
+
+        out.append("# HELP payroll_file_opens_total Files opened by the run.\n");
+        out.append("# TYPE payroll_file_opens_total counter\n");
+        out.append("payroll_file_opens_total ").append(fileOpens.sum()).append('\n');
+
+        out.append("# HELP payroll_bytes_read_total Bytes read by the run.\n");
+        out.append("# TYPE payroll_bytes_read_total counter\n");
+        out.append("payroll_bytes_read_total ").append(bytesRead.sum()).append('\n');
+
+        out.append("# HELP payroll_bytes_written_total Bytes written by the run.\n");
+        out.append("# TYPE payroll_bytes_written_total counter\n");
+        out.append("payroll_bytes_written_total ").append(bytesWritten.sum()).append('\n');
+
+        out.append("# HELP payroll_errors_total Errors raised during the run, by type.\n");
+        out.append("# TYPE payroll_errors_total counter\n");
+        for (Map.Entry<String, Long> error : sorted(errors).entrySet()) {
+            out.append("payroll_errors_total{type=\"").append(error.getKey()).append("\"} ")
+                    .append(error.getValue()).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Formats the metrics as a JSON object.
+     *
+     * @return the metrics JSON
+     */
+    public String toJson() {
+        StringBuilder out = new StringBuilder("{\n");
+        out.append("  \"runSeconds\": ").append(seconds(getRunNanos())).append(",\n");
+
+        out.append("  \"stageSeconds\": {");
+        appendJsonEntries(out, sorted(stageNanos), true);
+        out.append("},\n");
+
+        out.append("  \"employeesProcessed\": ").append(employeesProcessed.sum()).append(",\n");
+        out.append("  \"employeesPerSecond\": ").append(format(getEmployeesPerSecond())).append(",\n");
+
+        out.append("  \"payslipLatency\": {\"buckets\": [");
+        for (int i = 0; i < latencyBuckets.length; i++) {
+            String bound = i < LATENCY_BOUNDS.length ? seconds(LATENCY_BOUNDS[i]) : "\"+Inf\"";
+            out.append(i == 0 ? "" : ", ").append("{\"le\": ").append(bound)
+                    .append(", \"count\": ").append(latencyBuckets[i].sum()).append('}');
+        }
+        out.append("], \"sumSeconds\": ").append(seconds(latencySumNanos.sum())).append("},\n");
+
+        out.append("  \"fileOpens\": ").append(fileOpens.sum()).append(",\n");
+        out.append("  \"bytesRead\": ").append(bytesRead.sum()).append(",\n");
+        out.append("  \"bytesWritten\": ").append(bytesWritten.sum()).append(",\n");
+
+        out.append("  \"errors\": {");
+        appendJsonEntries(out, sorted(errors), false);
+        out.append("}\n}\n");
+        return out.toString();
+    }
+
+    private static void appendJsonEntries(StringBuilder out, Map<String, Long> entries, boolean nanosToSeconds) {
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : entries.entrySet()) {
+            out.append(first ? "" : ", ").append('"').append(entry.getKey().replace("\"", "\\\"")).append("\": ")
+                    .append(nanosToSeconds ? seconds(entry.getValue()) : String.valueOf(entry.getValue()));
+            first = false;
+        }
+    }
+
+    private static Map<String, Long> sorted(Map<String, LongAdder> values) {
+        Map<String, Long> sorted = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : values.entrySet()) {
+            sorted.put(entry.getKey(), entry.getValue().sum());
+        }
+        return sorted;
+    }
+
+    private static String seconds(long nanos) {
+        return format(nanos / 1e9);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.9f", value).replaceAll("0+$", "").replaceAll("\\.$", ".0");
+    }
+}
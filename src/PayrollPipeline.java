@@ -0,0 +1,268 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class PayrollPipeline {
+    private static final Item END = new Item(-1, null);
+
+    /**
+     * Joins an employee's record with the rest of their payroll inputs.
+     */
+    public interface Enricher {
+        /**
+         * @param employeeData the employee's record as read from EmployeeInfo.csv
+         * @return the employee's payroll input, or null if the employee is not paid in this run
+         * @throws IOException if the inputs cannot be read
+         */
+        PayrollInput enrich(String[] employeeData) throws IOException;
+    }
+
+    /**
+     * Calculates the payslip of one employee.
+     */
+    public interface Calculator {
+        /**
+         * @param input the employee's payroll input
+         * @return the calculated payslip
+         * @throws IOException if the payslip cannot be calculated
+         */
+        PaySlipRecord calculate(PayrollInput input) throws IOException;
+    }
+
+    /**
+     * Receives the calculated payslips in EmployeeInfo.csv order.
+     */
+    public interface Sink {
+        /**
+         * @param payslip the calculated payslip
+         * @throws IOException if the payslip cannot be stored
+         */
+        void accept(PaySlipRecord payslip) throws IOException;
+    }
+
+    private int queueCapacity;
+    private int enrichmentThreads;
+    private int calculationThreads;
+    private PayrollMetrics metrics;
+    private long elapsedNanos;
+
+    /**
+     * Constructs a payroll pipeline.
+     *
+     * <p>The pipeline has four stages connected by bounded queues: a reader that streams
+     * EmployeeInfo.csv, an enrichment stage that joins each record with its status, salary
+     * scale and pay claim, a calculation stage, and a writer stage that runs on the calling
+     * thread. The reader blocks once {@code 4 * queueCapacity} records are in flight, so
+     * memory use does not grow with the number of employees, and reading, calculating and
+     * writing overlap.</p>
+     *
+     * @param queueCapacity the capacity of each queue between stages
+     * @param enrichmentThreads the number of threads in the enrichment stage
+     * @param calculationThreads the number of threads in the calculation stage
+     * @param metrics the metrics that the time spent in each stage is recorded in
+     */
+    public PayrollPipeline(int queueCapacity, int enrichmentThreads, int calculationThreads, PayrollMetrics metrics) {
+        if (queueCapacity < 1 || enrichmentThreads < 1 || calculationThreads < 1) {
+            throw new IllegalArgumentException("Queue capacity and stage parallelism must be at least 1.");
+        }
+        this.queueCapacity = queueCapacity;
+        this.enrichmentThreads = enrichmentThreads;
+        this.calculationThreads = calculationThreads;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Runs every employee in the given file through the pipeline.
+     *
+     * <p>The calculation stage may finish employees out of order; the writer stage puts
+     * them back in EmployeeInfo.csv order before passing them to the sink, so the output
+     * is the same whatever the parallelism.</p>
+     *
+     * @param employeeInfoFile the path to EmployeeInfo.csv
+     * @param enricher the enrichment stage
+     * @param calculator the calculation stage
+     * @param sink the receiver of the payslips
+     * @return the number of payslips passed to the sink
+     * @throws IOException if any stage fails
+     */
+    public int run(String employeeInfoFile, Enricher enricher, Calculator calculator, Sink sink) throws IOException {
+        BlockingQueue<Item> records = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Item> inputs = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Item> payslips = new ArrayBlockingQueue<>(queueCapacity);
+        Semaphore inFlight = new Semaphore(4 * queueCapacity);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger enrichersLeft = new AtomicInteger(enrichmentThreads);
+        AtomicInteger calculatorsLeft = new AtomicInteger(calculationThreads);
+
+        ExecutorService threads = Executors.newFixedThreadPool(1 + enrichmentThreads + calculationThreads);
+        long start = System.nanoTime();
+
+        threads.submit(() -> runStage(failure, () -> {
+            metrics.recordFileRead(Files.size(Paths.get(employeeInfoFile)));
+            long readNanos = 0;
+            try (BufferedReader reader = new BufferedReader(new FileReader(employeeInfoFile, StandardCharsets.UTF_8))) {
+                long readStart = System.nanoTime();
+                // Changes not yet compacted into the file, which replace the records they change
+                Map<String, String[]> logged = EmployeeRepository.readLog(employeeInfoFile);
+                String line;
+                long sequence = 0;
+
+                if ((line = reader.readLine()) != null && line.toLowerCase().contains("id")) {
+                    line = reader.readLine();
+                }
+                while (line != null) {
+                    String[] employeeData = line.split(",");
+                    if (!logged.isEmpty() && logged.containsKey(employeeData[0].trim())) {
+                        employeeData = logged.remove(employeeData[0].trim());
+                    }
+                    readNanos += System.nanoTime() - readStart;
+
+                    inFlight.acquire();
+                    records.put(new Item(sequence++, employeeData));
+
+                    readStart = System.nanoTime();
+                    line = reader.readLine();
+                }
+                // Employees added since the last compaction follow the file's records
+                for (String[] employeeData : logged.values()) {
+                    inFlight.acquire();
+                    records.put(new Item(sequence++, employeeData));
+                }
+                readNanos += System.nanoTime() - readStart;
+            } finally {
+                metrics.addStageTime("read", readNanos);
+            }
+            for (int i = 0; i < enrichmentThreads; i++) {
+                records.put(END);
+            }
+        }));
+
+        for (int i = 0; i < enrichmentThreads; i++) {
+            threads.submit(() -> runStage(failure, () -> {
+                Item item;
+                while ((item = records.take()) != END) {
+                    long taskStart = System.nanoTime();
+                    item.input = enricher.enrich(item.employeeData);
+                    metrics.addStageTime("enrich", System.nanoTime() - taskStart);
+                    inputs.put(item);
+                }
+                if (enrichersLeft.decrementAndGet() == 0) {
+                    for (int j = 0; j < calculationThreads; j++) {
+                        inputs.put(END);
+                    }
+                }
+            }));
+        }
+
+        for (int i = 0; i < calculationThreads; i++) {
+            threads.submit(() -> runStage(failure, () -> {
+                Item item;
+                while ((item = inputs.take()) != END) {
+                    if (item.input != null) {
+                        long taskStart = System.nanoTime();
+                        item.payslip = calculator.calculate(item.input);
+                        long latency = System.nanoTime() - taskStart;
+                        metrics.addStageTime("calculate", latency);
+                        metrics.recordPayslip(latency);
+                    }
+                    payslips.put(item);
+                }
+                if (calculatorsLeft.decrementAndGet() == 0) {
+                    payslips.put(END);
+                }
+            }));
+        }
+
+        try {
+            Map<Long, Item> pending = new HashMap<>();
+            long nextSequence = 0;
+            int written = 0;
+
+            while (true) {
+                Item item = payslips.poll(100, TimeUnit.MILLISECONDS);
+                if (failure.get() != null) {
+                    throw failure.get();
+                }
+                if (item == null) {
+                    continue;
+                }
+                if (item == END) {
+                    break;
+                }
+
+                pending.put(item.sequence, item);
+                Item ready;
+                while ((ready = pending.remove(nextSequence)) != null) {
+                    if (ready.payslip != null) {
+                        long writeStart = System.nanoTime();
+                        sink.accept(ready.payslip);
+                        metrics.addStageTime("write", System.nanoTime() - writeStart);
+                        written++;
+                    }
+                    metrics.recordEmployeeProcessed();
+                    nextSequence++;
+                    inFlight.release();
+                }
+            }
+            return written;
+        } catch (IOException | RuntimeException | Error e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Payroll run was interrupted", e);
+        } catch (Throwable e) {
+            throw new IOException("Payroll pipeline failed: " + e.getMessage(), e);
+        } finally {
+            threads.shutdownNow();
+            elapsedNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Gets the wall clock time of the last run.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    private static void runStage(AtomicReference<Throwable> failure, StageBody body) {
+        try {
+            body.run();
+        } catch (InterruptedException e) {
+            // The pipeline is shutting down
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    private interface StageBody {
+        void run() throws Exception;
+    }
+
+    private static class Item {
+        private final long sequence;
+        private final String[] employeeData;
+        private PayrollInput input;
+        private PaySlipRecord payslip;
+
+        private Item(long sequence, String[] employeeData) {
+            this.sequence = sequence;
+            this.employeeData = employeeData;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SalaryScaleTable {
+    private static final Map<String, SalaryScaleTable> tables = new ConcurrentHashMap<>();
+
+    private final long lastModified;
+    // Lower-cased job title -> salaries indexed by scale point (NaN where a point is not defined)
+    private final Map<String, double[]> salariesByTitle = new HashMap<>();
+
+    private SalaryScaleTable(long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Returns the shared salary scale table for the given file, loading it on first use.
+     *
+     * <p>The file is read once and kept in memory. If the file has been modified since it
+     * was loaded, it is read again so that changes to the salary scales are picked up. Each
+     * call checks the file's modification time, so callers get the table once per run or
+     * operation and make their lookups in the table they hold; only a reload takes a lock.</p>
+     *
+     * @param filePath the path to the salary scales CSV file (e.g., "FulltimeSalaryScales.csv")
+     * @return the loaded salary scale table
+     * @throws IOException if the file cannot be read
+     */
+    public static SalaryScaleTable getTable(String filePath) throws IOException {
+        long lastModified = new File(filePath).lastModified();
+        SalaryScaleTable table = tables.get(filePath);
+        if (table != null && table.lastModified == lastModified) {
+            return table;
+        }
+
+        synchronized (tables) {
+            table = tables.get(filePath);
+            if (table == null || table.lastModified != lastModified) {
+                table = load(filePath, lastModified);
+                tables.put(filePath, table);
+            }
+            return table;
+        }
+    }
+
+    private static SalaryScaleTable load(String filePath, long lastModified) throws IOException {
+        SalaryScaleTable table = new SalaryScaleTable(lastModified);
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
+            String line;
+
+            reader.readLine();
+
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length < 3) {
+                    continue;
+                }
+
+                try {
+                    String jobTitle = fields[0].trim();
+                    int scalePoint = Integer.parseInt(fields[1].trim());
+                    double salary = Double.parseDouble(fields[2].trim());
+                    table.put(jobTitle, scalePoint, salary);
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid row format in " + filePath + ": " + line);
+                }
+            }
+        }
+        return table;
+    }
+
+    private void put(String jobTitle, int scalePoint, double salary) {
+        if (scalePoint < 0) {
+            return;
+        }
+        String key = jobTitle.toLowerCase();
+        double[] salaries = salariesByTitle.get(key);
+
+        if (salaries == null) {
+            salaries = new double[scalePoint + 1];
+            Arrays.fill(salaries, Double.NaN);
+        } else if (salaries.length <= scalePoint) {
+            int oldLength = salaries.length;
+            salaries = Arrays.copyOf(salaries, scalePoint + 1);
+            Arrays.fill(salaries, oldLength, salaries.length, Double.NaN);
+        }
+        salaries[scalePoint] = salary;
+        salariesByTitle.put(key, salaries);
+    }
+
+    /**
+     * Retrieves the annual salary for a job title and scale point. The job title is matched ignoring case.
+     *
+     * @param jobTitle   the job title of the employee
+     * @param scalePoint the scale point of the employee
+     * @return the annual salary, or {@code Double.NaN} if the combination is not in the table
+     */
+    public double getSalary(String jobTitle, int scalePoint) {
+        if (jobTitle == null) {
+            return Double.NaN;
+        }
+        double[] salaries = salariesByTitle.get(jobTitle.trim().toLowerCase());
+
+        if (salaries == null || scalePoint < 0 || scalePoint >= salaries.length) {
+            return Double.NaN;
+        }
+        return salaries[scalePoint];
+    }
+
+    /**
+     * Checks if the salary table contains the given job title, ignoring case.
+     *
+     * @param jobTitle the job title to look up
+     * @return <code>true</code> if the job title has at least one scale point, <code>false</code> otherwise
+     */
+    public boolean hasJobTitle(String jobTitle) {
+        return jobTitle != null && salariesByTitle.containsKey(jobTitle.trim().toLowerCase());
+    }
+
+    /**
+     * Retrieves the highest scale point defined for a job title.
+     *
+     * @param jobTitle the job title to look up
+     * @return the maximum scale point, or {@code -1} if the job title is not in the table
+     */
+    public int getMaxScalePoint(String jobTitle) {
+        if (jobTitle == null) {
+            return -1;
+        }
+        double[] salaries = salariesByTitle.get(jobTitle.trim().toLowerCase());
+        return salaries == null ? -1 : salaries.length - 1;
+    }
+
+    /**
+     * Gets the modification time of the file when this table was loaded.
+     *
+     * @return the file's last modified time in milliseconds
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+}
@@ -0,0 +1,329 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TaxRules {
+    public static final String INCOME_TAX = "incomeTax";
+    public static final String PRSI = "prsi";
+    public static final String USC = "usc";
+    public static final String UNION_FEE = "unionFee";
+
+    // Amounts per block of a batch calculation, small enough for a block and its outputs to stay in cache
+    private static final int BATCH_BLOCK = 1024;
+
+    private static final Map<String, TaxRules> rules = new HashMap<>();
+
+    private final String version;
+    private final long lastModified;
+    private final Bands incomeTax;
+    private final Bands prsi;
+    private final Bands usc;
+    private final Bands unionFee;
+
+    private TaxRules(String version, long lastModified, Map<String, Bands> bandsByTax) {
+        this.version = version;
+        this.lastModified = lastModified;
+        this.incomeTax = bandsByTax.get(INCOME_TAX);
+        this.prsi = bandsByTax.get(PRSI);
+        this.usc = bandsByTax.get(USC);
+        this.unionFee = bandsByTax.get(UNION_FEE);
+    }
+
+    /**
+     * Returns the shared tax rules for the given file, loading them on first use.
+     *
+     * <p>The file starts with a header, then a {@code version} row naming the tax year and
+     * revision of the rules, then one row per band giving the tax, the amount of gross pay
+     * the band starts at and the rate charged on pay above it:</p>
+     * <pre>
+     * tax,threshold,rate
+     * version,2024.1
+     * incomeTax,0,0.20
+     * incomeTax,42000,0.40
+     * </pre>
+     *
+     * <p>Every one of incomeTax, prsi, usc and unionFee must have at least one band. Like
+     * {@link SalaryScaleTable}, the rules are read again if the file has been modified since
+     * they were loaded.</p>
+     *
+     * @param filePath the path to the tax rules CSV file (e.g., "TaxRules.csv")
+     * @return the loaded tax rules
+     * @throws IOException if the file cannot be read or does not define every tax
+     */
+    public static synchronized TaxRules getRules(String filePath) throws IOException {
+        File file = new File(filePath);
+        if (!file.isFile()) {
+            throw new FileNotFoundException("Tax rules file not found: " + filePath);
+        }
+
+        long lastModified = file.lastModified();
+        TaxRules taxRules = rules.get(filePath);
+
+        if (taxRules == null || taxRules.lastModified != lastModified) {
+            taxRules = load(filePath, lastModified);
+            rules.put(filePath, taxRules);
+        }
+        return taxRules;
+    }
+
+    private static TaxRules load(String filePath, long lastModified) throws IOException {
+        String version = null;
+        Map<String, List<double[]>> rowsByTax = new HashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
+            String line;
+
+            reader.readLine();
+
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length < 2 || fields[0].trim().isEmpty()) {
+                    continue;
+                }
+
+                String tax = fields[0].trim();
+                if (tax.equals("version")) {
+                    version = fields[1].trim();
+                    continue;
+                }
+                if (fields.length < 3) {
+                    throw new IOException("Invalid row format in " + filePath + ": " + line);
+                }
+
+                try {
+                    double threshold = Double.parseDouble(fields[1].trim());
+                    double rate = Double.parseDouble(fields[2].trim());
+                    rowsByTax.computeIfAbsent(tax, key -> new ArrayList<>()).add(new double[]{threshold, rate});
+                } catch (NumberFormatException e) {
+                    throw new IOException("Invalid row format in " + filePath + ": " + line, e);
+                }
+            }
+        }
+
+        if (version == null || version.isEmpty()) {
+            throw new IOException("No version found in " + filePath);
+        }
+
+        Map<String, Bands> bandsByTax = new HashMap<>();
+        for (String tax : new String[]{INCOME_TAX, PRSI, USC, UNION_FEE}) {
+            List<double[]> rows = rowsByTax.get(tax);
+            if (rows == null) {
+                throw new IOException("No bands found for " + tax + " in " + filePath);
+            }
+            bandsByTax.put(tax, new Bands(tax, rows));
+        }
+        return new TaxRules(version, lastModified, bandsByTax);
+    }
+
+    /**
+     * Gets the version of the rules, as given in the file. Payslips calculated under
+     * different versions may differ even if the employee's pay is the same.
+     *
+     * @return the version of the tax rules
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Calculates the income tax due on a gross pay amount.
+     *
+     * @param grossPay the gross pay
+     * @return the income tax amount
+     */
+    public double getIncomeTax(double grossPay) {
+        return incomeTax.apply(grossPay);
+    }
+
+    /**
+     * Calculates the PRSI due on a gross pay amount.
+     *
+     * @param grossPay the gross pay
+     * @return the PRSI amount
+     */
+    public double getPRSI(double grossPay) {
+        return prsi.apply(grossPay);
+    }
+
+    /**
+     * Calculates the USC due on a gross pay amount.
+     *
+     * @param grossPay the gross pay
+     * @return the USC amount
+     */
+    public double getUSC(double grossPay) {
+        return usc.apply(grossPay);
+    }
+
+    /**
+     * Calculates the income tax due on a cumulative basis: on the gross pay of the first
+     * {@code periods} pay periods of the tax year, with every band widened to cover that
+     * many periods.
+     *
+     * @param cumulativeGrossPay the gross pay of the tax year so far, including this period
+     * @param periods the number of pay periods the gross pay covers, at least 1
+     * @return the income tax due for the tax year so far
+     */
+    public double getIncomeTax(double cumulativeGrossPay, int periods) {
+        return incomeTax.apply(cumulativeGrossPay, periods);
+    }
+
+    /**
+     * Calculates the USC due on a cumulative basis, as {@link #getIncomeTax(double, int)}
+     * does for income tax.
+     *
+     * @param cumulativeGrossPay the gross pay of the tax year so far, including this period
+     * @param periods the number of pay periods the gross pay covers, at least 1
+     * @return the USC due for the tax year so far
+     */
+    public double getUSC(double cumulativeGrossPay, int periods) {
+        return usc.apply(cumulativeGrossPay, periods);
+    }
+
+    /**
+     * Calculates the union fee due on a gross pay amount.
+     *
+     * @param grossPay the gross pay
+     * @return the union fee amount
+     */
+    public double getUnionFee(double grossPay) {
+        return unionFee.apply(grossPay);
+    }
+
+    /**
+     * Calculates the deductions and net pay for a whole array of gross pay amounts at once.
+     * Each output array must be at least as long as {@code grossPay}.
+     *
+     * <p>The amounts are worked through in blocks, and each tax is applied to a block one
+     * band at a time with {@code Math.min} and {@code Math.max} instead of a search for the
+     * band. The inner loops have no branches, so the JIT compiler can turn them into SIMD
+     * instructions. Each deduction is then rounded to the cent and net pay is gross pay less
+     * the rounded deductions, so the results are exactly those of
+     * {@link GrossToNet#calculate(long, TaxRules)}.</p>
+     *
+     * @param grossPay the gross pay amounts, in cents
+     * @param incomeTax receives the income tax on each amount, in cents
+     * @param prsi receives the PRSI on each amount, in cents
+     * @param usc receives the USC on each amount, in cents
+     * @param unionFee receives the union fee on each amount, in cents
+     * @param netPay receives each amount less all four deductions, in cents
+     * @throws IllegalArgumentException if an output array is shorter than {@code grossPay}
+     */
+    public void calculate(long[] grossPay, long[] incomeTax, long[] prsi, long[] usc,
+                          long[] unionFee, long[] netPay) {
+        int length = grossPay.length;
+        if (incomeTax.length < length || prsi.length < length || usc.length < length
+                || unionFee.length < length || netPay.length < length) {
+            throw new IllegalArgumentException("Output arrays must hold at least " + length + " amounts");
+        }
+
+        double[] amounts = new double[BATCH_BLOCK];
+        double[][] deductions = new double[4][BATCH_BLOCK];
+        for (int from = 0; from < length; from += BATCH_BLOCK) {
+            int count = Math.min(length - from, BATCH_BLOCK);
+            for (int i = 0; i < count; i++) {
+                amounts[i] = Money.toAmount(grossPay[from + i]);
+            }
+            this.incomeTax.apply(amounts, deductions[0], 0, count);
+            this.prsi.apply(amounts, deductions[1], 0, count);
+            this.usc.apply(amounts, deductions[2], 0, count);
+            this.unionFee.apply(amounts, deductions[3], 0, count);
+            for (int i = 0; i < count; i++) {
+                int at = from + i;
+                incomeTax[at] = Money.fromAmount(deductions[0][i]);
+                prsi[at] = Money.fromAmount(deductions[1][i]);
+                usc[at] = Money.fromAmount(deductions[2][i]);
+                unionFee[at] = Money.fromAmount(deductions[3][i]);
+                netPay[at] = grossPay[at] - (incomeTax[at] + prsi[at] + usc[at] + unionFee[at]);
+            }
+        }
+    }
+
+    /**
+     * The bands of one tax, compiled into parallel arrays sorted by threshold. The tax due
+     * on all the bands below each threshold is worked out when the rules are loaded, so
+     * applying the tax is a search for the band followed by one multiply.
+     */
+    private static class Bands {
+        private final double[] thresholds;
+        private final double[] rates;
+        // Tax due on an amount equal to thresholds[i]
+        private final double[] taxBelow;
+
+        Bands(String tax, List<double[]> rows) throws IOException {
+            rows.sort((a, b) -> Double.compare(a[0], b[0]));
+
+            // Pay below the lowest listed threshold is not taxed
+            boolean startsAtZero = rows.get(0)[0] <= 0;
+            int offset = startsAtZero ? 0 : 1;
+            thresholds = new double[rows.size() + offset];
+            rates = new double[rows.size() + offset];
+            taxBelow = new double[rows.size() + offset];
+
+            for (int i = 0; i < rows.size(); i++) {
+                thresholds[i + offset] = rows.get(i)[0];
+                rates[i + offset] = rows.get(i)[1];
+            }
+
+            for (int i = 1; i < thresholds.length; i++) {
+                if (thresholds[i] == thresholds[i - 1]) {
+                    throw new IOException("Duplicate " + tax + " threshold: " + thresholds[i]);
+                }
+                taxBelow[i] = taxBelow[i - 1] + (thresholds[i] - thresholds[i - 1]) * rates[i - 1];
+            }
+        }
+
+        double apply(double amount) {
+            int band = thresholds.length - 1;
+            while (band > 0 && amount <= thresholds[band]) {
+                band--;
+            }
+            return taxBelow[band] + (amount - thresholds[band]) * rates[band];
+        }
+
+        /**
+         * Applies the tax to an amount earned over several periods. The thresholds and the
+         * tax below them scale with the number of periods, so no arrays are rebuilt.
+         */
+        double apply(double amount, int periods) {
+            if (periods == 1) {
+                return apply(amount);
+            }
+            int band = thresholds.length - 1;
+            while (band > 0 && amount <= thresholds[band] * periods) {
+                band--;
+            }
+            return taxBelow[band] * periods + (amount - thresholds[band] * periods) * rates[band];
+        }
+
+        /**
+         * Applies the tax to amounts[from..to) and stores the results in out. The first band
+         * has no lower bound, so negative amounts are treated as {@link #apply(double)} does;
+         * every later band adds the part of the amount that falls inside it, or zero.
+         */
+        void apply(double[] amounts, double[] out, int from, int to) {
+            double firstUpper = thresholds.length > 1 ? thresholds[1] : Double.POSITIVE_INFINITY;
+            double firstLower = thresholds[0];
+            double firstRate = rates[0];
+            for (int i = from; i < to; i++) {
+                out[i] = (Math.min(amounts[i], firstUpper) - firstLower) * firstRate;
+            }
+
+            for (int band = 1; band < thresholds.length; band++) {
+                double lower = thresholds[band];
+                double upper = band + 1 < thresholds.length ? thresholds[band + 1] : Double.POSITIVE_INFINITY;
+                double rate = rates[band];
+                for (int i = from; i < to; i++) {
+                    out[i] += Math.max(0.0, Math.min(amounts[i], upper) - lower) * rate;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,292 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+public class WorkforceDataGenerator {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_CLAIM_HOURS = 160;
+    private static final String[] FIRST_NAMES = {
+            "Aoife", "Brian", "Ciara", "Declan", "Eimear", "Fionn", "Grainne", "Hugh", "Niamh", "Oisin",
+            "Roisin", "Sean", "Siobhan", "Tadhg", "Una", "Conor", "Maeve", "Liam", "Orla", "Padraig"
+    };
+    private static final String[] LAST_NAMES = {
+            "Murphy", "Kelly", "O'Sullivan", "Walsh", "Smith", "O'Brien", "Byrne", "Ryan", "O'Connor", "O'Neill",
+            "Reilly", "Doyle", "McCarthy", "Gallagher", "Doherty", "Kennedy", "Lynch", "Murray", "Quinn", "Moore"
+    };
+
+    private String salaryScalesFile = "FulltimeSalaryScales.csv";
+    private String outputDirectory = ".";
+    private int employees = 1000;
+    private double partTimeRatio = 0.3;
+    private double claimDensity = 0.8;
+    private YearMonth claimMonth = YearMonth.now();
+    private int claimMonths = 1;
+    private long seed = 42;
+
+    // Job title, scale point and annual salary of every row in the salary scales file
+    private List<String> scaleTitles = new ArrayList<>();
+    private List<Integer> scalePoints = new ArrayList<>();
+    private List<Double> scaleSalaries = new ArrayList<>();
+
+    /**
+     * Generates a synthetic workforce from the command line.
+     *
+     * <p>Options are given as {@code name=value} pairs, any of which may be left out:</p>
+     * <ul>
+     *     <li>{@code employees} - the number of employees to generate (default 1000).</li>
+     *     <li>{@code partTimeRatio} - the fraction of employees who are part-time (default 0.3).</li>
+     *     <li>{@code claimDensity} - the chance that a part-time employee submits a claim in each month (default 0.8).</li>
+     *     <li>{@code month} - the last month to generate claims for, as yyyy-MM (default the current month).</li>
+     *     <li>{@code months} - the number of months of claims to generate, ending with {@code month} (default 1).</li>
+     *     <li>{@code seed} - the random seed, so that the same options always produce the same files (default 42).</li>
+     *     <li>{@code output} - the directory to write the files to (default the working directory).</li>
+     *     <li>{@code scales} - the salary scales file to draw job titles from (default FulltimeSalaryScales.csv).</li>
+     * </ul>
+     *
+     * @param args the options, e.g. {@code employees=100000 partTimeRatio=0.25 output=load}
+     * @throws IOException if the salary scales cannot be read or the files cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        WorkforceDataGenerator generator = new WorkforceDataGenerator();
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected name=value but got: " + arg);
+            }
+            String name = arg.substring(0, separator).trim();
+            String value = arg.substring(separator + 1).trim();
+
+            switch (name) {
+                case "employees" -> generator.setEmployees(Integer.parseInt(value));
+                case "partTimeRatio" -> generator.setPartTimeRatio(Double.parseDouble(value));
+                case "claimDensity" -> generator.setClaimDensity(Double.parseDouble(value));
+                case "month" -> generator.setClaimMonth(YearMonth.parse(value));
+                case "months" -> generator.setClaimMonths(Integer.parseInt(value));
+                case "seed" -> generator.setSeed(Long.parseLong(value));
+                case "output" -> generator.setOutputDirectory(value);
+                case "scales" -> generator.setSalaryScalesFile(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + name);
+            }
+        }
+
+        long start = System.nanoTime();
+        generator.generate();
+        System.out.printf("Generated %d employees in %s (%.1fs)%n", generator.employees,
+                new File(generator.outputDirectory).getAbsolutePath(), (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Sets the salary scales file that job titles, scale points and hourly rates are drawn from.
+     *
+     * @param salaryScalesFile the path to the salary scales file (default FulltimeSalaryScales.csv)
+     */
+    public void setSalaryScalesFile(String salaryScalesFile) {
+        this.salaryScalesFile = salaryScalesFile;
+    }
+
+    /**
+     * Sets the directory the generated files are written to. It is created if it does not exist.
+     *
+     * @param outputDirectory the output directory (default the working directory)
+     */
+    public void setOutputDirectory(String outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Sets the number of employees to generate.
+     *
+     * @param employees the number of employees (default 1000)
+     * @throws IllegalArgumentException if the number is negative
+     */
+    public void setEmployees(int employees) {
+        if (employees < 0) {
+            throw new IllegalArgumentException("Number of employees cannot be negative: " + employees);
+        }
+        this.employees = employees;
+    }
+
+    /**
+     * Sets the fraction of employees who are part-time.
+     *
+     * @param partTimeRatio the fraction, between 0 and 1 (default 0.3)
+     * @throws IllegalArgumentException if the fraction is not between 0 and 1
+     */
+    public void setPartTimeRatio(double partTimeRatio) {
+        this.partTimeRatio = checkRatio("partTimeRatio", partTimeRatio);
+    }
+
+    /**
+     * Sets the chance that a part-time employee submits a claim in each month.
+     *
+     * @param claimDensity the chance, between 0 and 1 (default 0.8)
+     * @throws IllegalArgumentException if the chance is not between 0 and 1
+     */
+    public void setClaimDensity(double claimDensity) {
+        this.claimDensity = checkRatio("claimDensity", claimDensity);
+    }
+
+    /**
+     * Sets the last month to generate claims for.
+     *
+     * @param claimMonth the last month of claims (default the current month)
+     */
+    public void setClaimMonth(YearMonth claimMonth) {
+        this.claimMonth = claimMonth;
+    }
+
+    /**
+     * Sets the number of months of claims to generate, ending with the claim month.
+     *
+     * @param claimMonths the number of months (default 1)
+     * @throws IllegalArgumentException if the number is less than 1
+     */
+    public void setClaimMonths(int claimMonths) {
+        if (claimMonths < 1) {
+            throw new IllegalArgumentException("At least one month of claims is needed: " + claimMonths);
+        }
+        this.claimMonths = claimMonths;
+    }
+
+    /**
+     * Sets the random seed, so that the same settings always produce the same files.
+     *
+     * @param seed the seed (default 42)
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    private static double checkRatio(String name, double value) {
+        if (value < 0 || value > 1) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1: " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Writes EmployeeInfo.csv, ValidLogins.csv, EmployeeStatus.csv and PayClaims.csv to the
+     * output directory, replacing any existing files.
+     *
+     * <p>Each employee is written to all four files as soon as they are generated, so memory
+     * use does not grow with the number of employees. The files use the same schemas as the
+     * readers in this project:</p>
+     * <ul>
+     *     <li>Job titles and scale points are drawn from the salary scales file.</li>
+     *     <li>Every employee has an "Employee" login; one Admin and one HR login are added first.</li>
+     *     <li>Part-time employees submit at most one claim per month, at their scale's hourly rate.</li>
+     * </ul>
+     *
+     * @throws IOException if the salary scales cannot be read or the files cannot be written
+     */
+    public void generate() throws IOException {
+        loadSalaryScales();
+        if (scaleTitles.isEmpty()) {
+            throw new IOException("No salary scales found in " + salaryScalesFile);
+        }
+        new File(outputDirectory).mkdirs();
+
+        Random random = new Random(seed);
+        YearMonth firstMonth = claimMonth.minusMonths(claimMonths - 1);
+
+        try (BufferedWriter info = open("EmployeeInfo.csv");
+             BufferedWriter logins = open("ValidLogins.csv");
+             BufferedWriter status = open("EmployeeStatus.csv");
+             BufferedWriter claims = open("PayClaims.csv")) {
+            info.write("id,username,name,dob,ppsNumber,password,jobTitle,scalePoint,pendingPromotionFlag,previousJobTitle,previousScalePoint,yearsAtTop");
+            info.newLine();
+            logins.write("username,password,jobType");
+            logins.newLine();
+            logins.write("admin,admin,Admin");
+            logins.newLine();
+            logins.write("hr,hr,HR");
+            logins.newLine();
+            status.write("username,WorkStatus");
+            status.newLine();
+            claims.write("username,date,hours_worked,hourlypay,paid");
+            claims.newLine();
+
+            for (int i = 0; i < employees; i++) {
+                int id = 100000 + i;
+                String username = "emp" + id;
+                String password = Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+                String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                        + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                LocalDate dob = LocalDate.of(1955 + random.nextInt(50), 1 + random.nextInt(12), 1 + random.nextInt(28));
+                String ppsNumber = String.format("%07d%c", random.nextInt(10_000_000), (char) ('A' + random.nextInt(23)));
+                int scale = random.nextInt(scaleTitles.size());
+                String jobTitle = scaleTitles.get(scale);
+                int scalePoint = scalePoints.get(scale);
+
+                info.write(id + "," + username + "," + name + ","
+                        + String.format("%02d/%02d/%d", dob.getDayOfMonth(), dob.getMonthValue(), dob.getYear()) + ","
+                        + ppsNumber + "," + password + "," + jobTitle + "," + scalePoint + ",0,,0,0");
+                info.newLine();
+                logins.write(username + "," + password + ",Employee");
+                logins.newLine();
+
+                boolean partTime = random.nextDouble() < partTimeRatio;
+                status.write(username + (partTime ? ",Part-Time" : ",Full-Time"));
+                status.newLine();
+
+                if (partTime) {
+                    double hourlyRate = scaleSalaries.get(scale) / 2080;
+                    for (YearMonth month = firstMonth; !month.isAfter(claimMonth); month = month.plusMonths(1)) {
+                        if (random.nextDouble() >= claimDensity) {
+                            continue;
+                        }
+                        LocalDate claimDate = month.atDay(1 + random.nextInt(month.lengthOfMonth()));
+                        int hoursWorked = 1 + random.nextInt(MAX_CLAIM_HOURS);
+                        claims.write(String.format(Locale.ROOT, "%s,%s,%d,%.2f,%.2f,%d", username, claimDate,
+                                hoursWorked, hourlyRate, hoursWorked * hourlyRate, scalePoint));
+                        claims.newLine();
+                    }
+                }
+            }
+        }
+    }
+
+    private BufferedWriter open(String fileName) throws IOException {
+        return new BufferedWriter(new FileWriter(new File(outputDirectory, fileName)), BUFFER_SIZE);
+    }
+
+    private void loadSalaryScales() throws IOException {
+        scaleTitles.clear();
+        scalePoints.clear();
+        scaleSalaries.clear();
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(salaryScalesFile, StandardCharsets.UTF_8))) {
+            String line;
+
+            reader.readLine();
+
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length < 3) {
+                    continue;
+                }
+
+                try {
+                    int scalePoint = Integer.parseInt(fields[1].trim());
+                    double salary = Double.parseDouble(fields[2].trim());
+                    scaleTitles.add(fields[0].trim());
+                    scalePoints.add(scalePoint);
+                    scaleSalaries.add(salary);
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid row format in " + salaryScalesFile + ": " + line);
+                }
+            }
+        }
+    }
+}